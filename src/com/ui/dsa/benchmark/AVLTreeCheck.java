@@ -0,0 +1,117 @@
+package com.ui.dsa.benchmark;
+
+import com.ui.dsa.tree.AVLTree;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Randomized check of the rebalancing of {@link AVLTree} against {@link TreeSet}
+ * <p>
+ * Runs random inserts, deletes and finds on an {@code AVLTree} and a {@code TreeSet} side by side. Every
+ * result must be the same on both, and {@link AVLTree#checkInvariants()} verifies the whole tree at
+ * regular intervals. The run ends with sequential, reverse and alternating loads of sorted keys, the
+ * worst cases of an unbalanced tree, whose heights must stay within the AVL bound of 1.44 log2(n + 2).
+ * Fails with an {@link AssertionError} or an {@link IllegalStateException} on the first difference.
+ * <p>
+ * Usage: {@code AVLTreeCheck [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code operations} - random operations, 2000000 by default</li>
+ * <li>{@code universe} - keys are drawn from 0 to the universe, exclusive; 100000 by default</li>
+ * <li>{@code interval} - operations between two invariant checks, 10000 by default</li>
+ * <li>{@code load} - keys of each sorted load, 1000000 by default</li>
+ * <li>{@code seed} - seed of the random operations, 42 by default</li>
+ * </ul>
+ */
+public class AVLTreeCheck {
+
+    private int operations = 2000000;
+    private int universe = 100000;
+    private int interval = 10000;
+    private int load = 1000000;
+    private long seed = 42;
+
+    public static void main(String[] args) {
+        AVLTreeCheck check = new AVLTreeCheck();
+        Options options = new Options(args, "operations", "universe", "interval", "load", "seed");
+        check.operations = options.intValue("operations", check.operations);
+        check.universe = options.intValue("universe", check.universe);
+        check.interval = options.intValue("interval", check.interval);
+        check.load = options.intValue("load", check.load);
+        check.seed = options.longValue("seed", check.seed);
+        check.runRandom();
+        check.runSorted("ascending");
+        check.runSorted("descending");
+        check.runSorted("alternating");
+    }
+
+    private void runRandom() {
+        Random random = new Random(seed);
+        AVLTree<Integer> tree = new AVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+        long start = System.nanoTime();
+        for (int i = 1; i <= operations; i++) {
+            Integer key = random.nextInt(universe);
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                same("insert " + key, tree.insert(key), expected.add(key));
+            } else if (operation < 8) {
+                same("delete " + key, tree.delete(key), expected.remove(key));
+            } else {
+                same("find " + key, tree.find(key) != null, expected.contains(key));
+            }
+            if (i % interval == 0) {
+                tree.checkInvariants();
+                same("size after " + i + " operations", tree.getSize(), expected.size());
+                checkHeight("after " + i + " operations", tree);
+            }
+        }
+        tree.checkInvariants();
+        same("size", tree.getSize(), expected.size());
+        for (int key = 0; key < universe; key++) {
+            same("element " + key, tree.find(key) != null, expected.contains(key));
+        }
+        System.out.printf(Locale.ROOT, "random: %d operations ok in %.1f s, size %d, height %d%n",
+                operations, (System.nanoTime() - start) / 1e9, tree.getSize(), tree.height());
+    }
+
+    private void runSorted(String order) {
+        AVLTree<Integer> tree = new AVLTree<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < load; i++) {
+            int key = order.equals("ascending") ? i
+                    : order.equals("descending") ? load - 1 - i
+                    : (i & 1) == 0 ? i / 2 : load - 1 - i / 2;
+            same(order + " insert " + key, tree.insert(key), true);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        tree.checkInvariants();
+        same(order + " load size", tree.getSize(), load);
+        checkHeight(order + " load", tree);
+        for (int i = 0; i < load; i += 2) {
+            same(order + " delete " + i, tree.delete(i), true);
+        }
+        tree.checkInvariants();
+        checkHeight(order + " load after deletes", tree);
+        System.out.printf(Locale.ROOT, "%s: %d inserts ok in %.1f s, height %d%n", order, load, seconds, tree.height());
+    }
+
+    /**
+     * Checks that the height in nodes is below 1.4405 log2(n + 2) - 0.3277, the bound of an AVL tree of n nodes
+     */
+    private static void checkHeight(String trace, AVLTree<Integer> tree) {
+        int nodes = tree.getSize();
+        double bound = 1.4405 * Math.log(nodes + 2) / Math.log(2) - 0.3277;
+        if (tree.height() + 1 > bound) {
+            throw new AssertionError(trace + ": height " + tree.height() + " exceeds the AVL bound for " + nodes + " nodes");
+        }
+    }
+
+    private static void same(String trace, Object actual, Object expected) {
+        if (!Objects.equals(actual, expected)) {
+            throw new AssertionError(trace + ": " + actual + " instead of " + expected);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.ui.dsa.benchmark;
+
+import com.ui.dsa.tree.AVLTree;
+import com.ui.dsa.tree.BPlusTree;
+import com.ui.dsa.tree.BSTree;
+import com.ui.dsa.tree.RBTree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Cost of inserts and finds with expensive keys, under the natural ordering of the keys and under a
+ * specialized comparator of the same ordering
+ * <p>
+ * The keys are {@link TextKey}s with a long common prefix or composite {@link RecordKey}s. Every case
+ * is run for a number of warm-up iterations and then for a number of measured iterations, each of
+ * which inserts all keys in random order into a new tree and then finds all of them. A separate
+ * untimed pass counts the comparisons per insert and per find, which are the same for both orderings.
+ * <p>
+ * Usage: {@code ComparatorBenchmark [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code structures} - comma separated {@link Ordered} names, all by default</li>
+ * <li>{@code keys} - comma separated key types, TEXT and RECORD, both by default</li>
+ * <li>{@code sizes} - comma separated tree sizes, 100000 by default</li>
+ * <li>{@code warmup} - warm-up iterations, 3 by default</li>
+ * <li>{@code iterations} - measured iterations, 5 by default</li>
+ * <li>{@code seed} - seed of the key generator, 42 by default</li>
+ * </ul>
+ */
+public class ComparatorBenchmark {
+
+    private static final String TEXT = "TEXT";
+    private static final String RECORD = "RECORD";
+    // shared prefix of the text keys, as long as a typical path or URL
+    private static final String TEXT_PREFIX = "/warehouse/events/region=europe-west/year=2024/month=06/day=14/part-";
+    private static final String[] REGIONS = {"asia-east", "asia-south", "europe-north", "europe-west", "us-central", "us-east"};
+
+    /**
+     * Trees that accept a comparator
+     */
+    public enum Ordered {
+
+        BSTREE {
+            @Override
+            <K extends Comparable<K>> Structure.Target<K> create(Comparator<? super K> comparator) {
+                final BSTree<K> tree = new BSTree<K>(comparator);
+                return new Structure.Target<K>() {
+                    public void insert(K key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(K key) {
+                        return tree.find(key) != null;
+                    }
+
+                    public void delete(K key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        AVLTREE {
+            @Override
+            <K extends Comparable<K>> Structure.Target<K> create(Comparator<? super K> comparator) {
+                final AVLTree<K> tree = new AVLTree<K>(comparator);
+                return new Structure.Target<K>() {
+                    public void insert(K key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(K key) {
+                        return tree.find(key) != null;
+                    }
+
+                    public void delete(K key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        RBTREE {
+            @Override
+            <K extends Comparable<K>> Structure.Target<K> create(Comparator<? super K> comparator) {
+                final RBTree<K> tree = new RBTree<K>(comparator);
+                return new Structure.Target<K>() {
+                    public void insert(K key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(K key) {
+                        return tree.find(key) != null;
+                    }
+
+                    public void delete(K key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        BPLUSTREE {
+            @Override
+            <K extends Comparable<K>> Structure.Target<K> create(Comparator<? super K> comparator) {
+                final BPlusTree<K> tree = new BPlusTree<K>(comparator);
+                return new Structure.Target<K>() {
+                    public void insert(K key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(K key) {
+                        return tree.find(key) != null;
+                    }
+
+                    public void delete(K key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        };
+
+        /**
+         * @param comparator - ordering of the keys, null for their natural ordering
+         */
+        abstract <K extends Comparable<K>> Structure.Target<K> create(Comparator<? super K> comparator);
+    }
+
+    private List<Ordered> structures = Arrays.asList(Ordered.values());
+    private List<String> keyTypes = Arrays.asList(TEXT, RECORD);
+    private int[] sizes = {100000};
+    private int warmup = 3;
+    private int iterations = 5;
+    private long seed = 42;
+
+    private long sink;
+    // comparisons of the counting pass
+    private long comparisons;
+
+    public static void main(String[] args) {
+        ComparatorBenchmark benchmark = new ComparatorBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+    }
+
+    private void parse(String[] args) {
+        Options options = new Options(args, "structures", "keys", "sizes", "warmup", "iterations", "seed");
+        structures = options.enums("structures", Ordered.class, structures);
+        keyTypes = options.names("keys", keyTypes);
+        for (String keyType : keyTypes) {
+            if (!keyType.equals(TEXT) && !keyType.equals(RECORD)) {
+                throw new IllegalArgumentException("Unknown key type: " + keyType);
+            }
+        }
+        sizes = options.ints("sizes", sizes);
+        warmup = options.intValue("warmup", warmup);
+        iterations = options.intValue("iterations", iterations);
+        seed = options.longValue("seed", seed);
+    }
+
+    private void run() {
+        System.out.printf("%-12s %-8s %10s %-12s %12s %12s %12s %12s%n",
+                "structure", "keys", "size", "ordering", "ns/insert", "ns/find", "cmp/insert", "cmp/find");
+        for (String keyType : keyTypes) {
+            for (int size : sizes) {
+                Random random = new Random(seed);
+                if (keyType.equals(TEXT)) {
+                    TextKey[] keys = textKeys(size, random);
+                    for (Ordered structure : structures) {
+                        runCase(structure, keyType, keys, TextKey.BY_PREFIX);
+                    }
+                } else {
+                    RecordKey[] keys = recordKeys(size, random);
+                    for (Ordered structure : structures) {
+                        runCase(structure, keyType, keys, RecordKey.BY_FIELDS);
+                    }
+                }
+            }
+        }
+        System.out.println("sink: " + sink);
+    }
+
+    private <K extends Comparable<K>> void runCase(Ordered structure, String keyType, K[] keys, Comparator<K> comparator) {
+        // the tree shapes and so the comparisons are the same for both orderings
+        Structure.Target<K> counted = structure.create((K first, K second) -> {
+            comparisons++;
+            return first.compareTo(second);
+        });
+        comparisons = 0;
+        for (K key : keys) {
+            counted.insert(key);
+        }
+        double insertComparisons = (double) comparisons / keys.length;
+        comparisons = 0;
+        for (K key : keys) {
+            counted.find(key);
+        }
+        double findComparisons = (double) comparisons / keys.length;
+
+        for (Comparator<K> ordering : Arrays.asList(null, comparator)) {
+            double insertTime = 0;
+            double findTime = 0;
+            for (int i = 0; i < warmup + iterations; i++) {
+                Structure.Target<K> target = structure.create(ordering);
+                long start = System.nanoTime();
+                for (K key : keys) {
+                    target.insert(key);
+                }
+                long inserted = System.nanoTime();
+                for (K key : keys) {
+                    if (target.find(key)) {
+                        sink++;
+                    }
+                }
+                long found = System.nanoTime();
+                if (i >= warmup) {
+                    insertTime += (double) (inserted - start) / keys.length;
+                    findTime += (double) (found - inserted) / keys.length;
+                }
+            }
+            System.out.printf(Locale.ROOT, "%-12s %-8s %10d %-12s %12.1f %12.1f %12.2f %12.2f%n",
+                    structure, keyType, keys.length, ordering == null ? "natural" : "comparator",
+                    insertTime / iterations, findTime / iterations, insertComparisons, findComparisons);
+        }
+    }
+
+    /**
+     * Distinct text keys of the shared prefix and a random lowercase suffix, in random order
+     */
+    private static TextKey[] textKeys(int size, Random random) {
+        TextKey[] keys = new TextKey[size];
+        StringBuilder suffix = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            suffix.setLength(0);
+            for (int j = 0; j < 12; j++) {
+                suffix.append((char) ('a' + random.nextInt(26)));
+            }
+            // the index keeps the keys distinct
+            keys[i] = new TextKey(TEXT_PREFIX + suffix + '-' + i, TEXT_PREFIX.length());
+        }
+        return keys;
+    }
+
+    /**
+     * Distinct record keys of a few regions and clustered timestamps, in random order
+     */
+    private static RecordKey[] recordKeys(int size, Random random) {
+        RecordKey[] keys = new RecordKey[size];
+        for (int i = 0; i < size; i++) {
+            int region = random.nextInt(REGIONS.length);
+            long timestamp = 1_700_000_000_000L + random.nextInt(size / 4 + 1);
+            // the index keeps the keys distinct
+            keys[i] = new RecordKey(REGIONS[region], region, timestamp, i);
+        }
+        return keys;
+    }
+}
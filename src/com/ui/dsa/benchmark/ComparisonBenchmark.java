@@ -0,0 +1,83 @@
+package com.ui.dsa.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Counts {@code compareTo} calls per insert, find and delete of every {@link Structure#generic() generic} structure
+ * <p>
+ * Usage: {@code ComparisonBenchmark [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code structures} - comma separated {@link Structure} names, all by default</li>
+ * <li>{@code distributions} - comma separated {@link KeyDistribution} names, all by default</li>
+ * <li>{@code sizes} - comma separated tree sizes; 1000,100000 by default</li>
+ * <li>{@code seed} - seed of the key generator, 42 by default</li>
+ * </ul>
+ */
+public class ComparisonBenchmark {
+
+    public static void main(String[] args) {
+        Options options = new Options(args, "structures", "distributions", "sizes", "seed");
+        List<Structure> structures = options.enums("structures", Structure.class, Arrays.asList(Structure.values()));
+        List<KeyDistribution> distributions =
+                options.enums("distributions", KeyDistribution.class, Arrays.asList(KeyDistribution.values()));
+        int[] sizes = options.ints("sizes", new int[]{1000, 100000});
+        long seed = options.longValue("seed", 42);
+
+        System.out.printf("%-18s %-12s %10s %14s %14s %14s%n",
+                "structure", "distribution", "size", "cmp/insert", "cmp/find", "cmp/delete");
+        for (KeyDistribution distribution : distributions) {
+            for (int size : sizes) {
+                CountingKey[] keys = keys(distribution.keys(size, size, new Random(seed)));
+                for (Structure structure : structures) {
+                    // primitive trees compare with < and never call compareTo
+                    if (structure.generic()) {
+                        run(structure, distribution, keys);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void run(Structure structure, KeyDistribution distribution, CountingKey[] keys) {
+        Structure.Target<CountingKey> target = structure.create();
+        String insert = "-", find = "-", delete = "-";
+        try {
+            CountingKey.reset();
+            for (CountingKey key : keys) {
+                target.insert(key);
+            }
+            insert = perOperation(keys.length);
+
+            CountingKey.reset();
+            for (CountingKey key : keys) {
+                target.find(key);
+            }
+            find = perOperation(keys.length);
+
+            CountingKey.reset();
+            for (CountingKey key : keys) {
+                target.delete(key);
+            }
+            delete = perOperation(keys.length);
+        } catch (RuntimeException | StackOverflowError e) {
+            delete = delete + " (failed: " + e.getClass().getSimpleName() + ")";
+        }
+        System.out.printf("%-18s %-12s %10d %14s %14s %14s%n",
+                structure, distribution, keys.length, insert, find, delete);
+    }
+
+    private static String perOperation(int operations) {
+        return String.format(Locale.ROOT, "%.2f", (double) CountingKey.comparisons() / operations);
+    }
+
+    private static CountingKey[] keys(int[] values) {
+        CountingKey[] keys = new CountingKey[values.length];
+        for (int i = 0; i < values.length; i++) {
+            keys[i] = new CountingKey(values[i]);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,264 @@
+package com.ui.dsa.benchmark;
+
+import com.ui.dsa.tree.ConcurrentRBTree;
+import com.ui.dsa.tree.PartitionedRBTree;
+import com.ui.dsa.tree.RBTree;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Throughput of shared trees under concurrent readers and writers
+ * <p>
+ * Every thread runs a fixed mix of finds and writes, half inserts and half deletes, on uniform keys
+ * from twice the preloaded size, so the tree stays about as large as preloaded. The threads run for
+ * a warm-up period and then for a measured period; the result is the total operations per second
+ * of all threads in the measured period.
+ * <p>
+ * Usage: {@code ConcurrentBenchmark [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code structures} - comma separated {@link Shared} names, all by default</li>
+ * <li>{@code threads} - comma separated thread counts, 1,2,4,8,16 by default</li>
+ * <li>{@code reads} - comma separated percentages of finds, 90,50,99 by default; 0 measures writes only</li>
+ * <li>{@code size} - number of preloaded keys, 100000 by default</li>
+ * <li>{@code warmup} - warm-up period in milliseconds, 1000 by default</li>
+ * <li>{@code duration} - measured period in milliseconds, 2000 by default</li>
+ * <li>{@code seed} - seed of the key generator, 42 by default</li>
+ * </ul>
+ */
+public class ConcurrentBenchmark {
+
+    // operations between checks of the phase
+    private static final int CHUNK = 1024;
+    private static final int WARMUP = 0;
+    private static final int MEASURE = 1;
+    private static final int STOP = 2;
+    private static final int SHARDS = 64;
+
+    /**
+     * Shared structures under benchmark
+     */
+    public enum Shared {
+
+        /**
+         * {@link RBTree} with every call synchronized on the tree
+         */
+        SYNCHRONIZED {
+            @Override
+            Structure.Target<Integer> create(int universe) {
+                final RBTree<Integer> tree = new RBTree<>();
+                return new Structure.Target<Integer>() {
+                    public synchronized void insert(Integer key) {
+                        tree.insert(key);
+                    }
+
+                    public synchronized boolean find(Integer key) {
+                        return tree.find(key) != null;
+                    }
+
+                    public synchronized void delete(Integer key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        CONCURRENT_RBTREE {
+            @Override
+            Structure.Target<Integer> create(int universe) {
+                final ConcurrentRBTree<Integer> tree = new ConcurrentRBTree<>();
+                return new Structure.Target<Integer>() {
+                    public void insert(Integer key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(Integer key) {
+                        return tree.contains(key);
+                    }
+
+                    public void delete(Integer key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        /**
+         * {@link PartitionedRBTree} with {@value ConcurrentBenchmark#SHARDS} shards of equal key ranges
+         */
+        PARTITIONED_RBTREE {
+            @Override
+            Structure.Target<Integer> create(int universe) {
+                Integer[] splitPoints = new Integer[SHARDS - 1];
+                for (int i = 1; i < SHARDS; i++) {
+                    splitPoints[i - 1] = (int) ((long) i * universe / SHARDS);
+                }
+                final PartitionedRBTree<Integer> tree = new PartitionedRBTree<>(splitPoints);
+                return new Structure.Target<Integer>() {
+                    public void insert(Integer key) {
+                        tree.insert(key);
+                    }
+
+                    public boolean find(Integer key) {
+                        return tree.contains(key);
+                    }
+
+                    public void delete(Integer key) {
+                        tree.delete(key);
+                    }
+                };
+            }
+        },
+
+        /**
+         * {@link ConcurrentSkipListSet}, as the reference
+         */
+        SKIPLIST {
+            @Override
+            Structure.Target<Integer> create(int universe) {
+                final ConcurrentSkipListSet<Integer> set = new ConcurrentSkipListSet<>();
+                return new Structure.Target<Integer>() {
+                    public void insert(Integer key) {
+                        set.add(key);
+                    }
+
+                    public boolean find(Integer key) {
+                        return set.contains(key);
+                    }
+
+                    public void delete(Integer key) {
+                        set.remove(key);
+                    }
+                };
+            }
+        };
+
+        /**
+         * @param universe - keys are drawn from 0, inclusive, to the universe, exclusive
+         */
+        abstract Structure.Target<Integer> create(int universe);
+    }
+
+    private List<Shared> structures = Arrays.asList(Shared.values());
+    private int[] threads = {1, 2, 4, 8, 16};
+    private int[] reads = {90, 50, 99};
+    private int size = 100000;
+    private long warmup = 1000;
+    private long duration = 2000;
+    private long seed = 42;
+
+    private volatile int phase;
+
+    public static void main(String[] args) throws InterruptedException {
+        ConcurrentBenchmark benchmark = new ConcurrentBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+    }
+
+    private void parse(String[] args) {
+        Options options = new Options(args, "structures", "threads", "reads", "size", "warmup", "duration", "seed");
+        structures = options.enums("structures", Shared.class, structures);
+        threads = options.ints("threads", threads);
+        reads = options.ints("reads", reads);
+        size = options.intValue("size", size);
+        warmup = options.longValue("warmup", warmup);
+        duration = options.longValue("duration", duration);
+        seed = options.longValue("seed", seed);
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf("%-18s %8s %8s %10s %14s%n", "structure", "threads", "reads %", "size", "Mops/s");
+        for (int read : reads) {
+            for (int threadCount : threads) {
+                for (Shared structure : structures) {
+                    runCase(structure, threadCount, read);
+                }
+            }
+        }
+    }
+
+    private void runCase(Shared structure, int threadCount, int readPercent) throws InterruptedException {
+        Random random = new Random(seed);
+        Structure.Target<Integer> target = structure.create(2 * size);
+        for (int i = 0; i < size; i++) {
+            target.insert(random.nextInt(2 * size));
+        }
+
+        phase = WARMUP;
+        Worker[] workers = new Worker[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            workers[i] = new Worker(target, readPercent, new Random(random.nextLong()));
+            workers[i].start();
+        }
+        Thread.sleep(warmup);
+        phase = MEASURE;
+        long start = System.nanoTime();
+        Thread.sleep(duration);
+        phase = STOP;
+        long elapsed = System.nanoTime() - start;
+        long operations = 0;
+        for (Worker worker : workers) {
+            worker.join();
+            operations += worker.operations;
+        }
+        System.out.printf(Locale.ROOT, "%-18s %8d %8d %10d %14.2f%n",
+                structure, threadCount, readPercent, size, operations * 1e3 / elapsed);
+    }
+
+    /**
+     * Runs the mix over pregenerated keys and operations until the benchmark stops
+     */
+    private class Worker extends Thread {
+
+        private final Structure.Target<Integer> target;
+        private final Integer[] keys;
+        private final byte[] mix;
+        // operations in the measured period
+        private long operations;
+
+        Worker(Structure.Target<Integer> target, int readPercent, Random random) {
+            this.target = target;
+            keys = new Integer[CHUNK * 64];
+            mix = new byte[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = random.nextInt(2 * size);
+                int p = random.nextInt(200);
+                mix[i] = p < 2 * readPercent ? Workload.FIND_OP : p % 2 == 0 ? Workload.INSERT_OP : Workload.DELETE_OP;
+            }
+        }
+
+        @Override
+        public void run() {
+            long found = 0;
+            int i = 0;
+            int current;
+            while ((current = phase) != STOP) {
+                for (int end = i + CHUNK; i < end; i++) {
+                    switch (mix[i]) {
+                        case Workload.INSERT_OP:
+                            target.insert(keys[i]);
+                            break;
+                        case Workload.DELETE_OP:
+                            target.delete(keys[i]);
+                            break;
+                        default:
+                            if (target.find(keys[i])) found++;
+                    }
+                }
+                if (i == keys.length) {
+                    i = 0;
+                }
+                if (current == MEASURE) {
+                    operations += CHUNK;
+                }
+            }
+            // keep the JIT from removing the finds
+            if (found == Long.MIN_VALUE) {
+                System.out.println(found);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ui.dsa.benchmark;
+
+/**
+ * Integer key that counts calls of {@link #compareTo}. The counter is not thread-safe
+ */
+public final class CountingKey implements Comparable<CountingKey> {
+
+    private static long comparisons;
+
+    private final int value;
+
+    public CountingKey(int value) {
+        this.value = value;
+    }
+
+    public static long comparisons() {
+        return comparisons;
+    }
+
+    public static void reset() {
+        comparisons = 0;
+    }
+
+    @Override
+    public int compareTo(CountingKey other) {
+        comparisons++;
+        return Integer.compare(value, other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CountingKey && ((CountingKey) o).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return Integer.toString(value);
+    }
+}
@@ -0,0 +1,153 @@
+package com.ui.dsa.benchmark;
+
+import java.util.Random;
+
+/**
+ * Key distributions used to drive the benchmark workloads
+ */
+public enum KeyDistribution {
+
+    /**
+     * Ascending keys 0, 1, 2, ...
+     */
+    SEQUENTIAL {
+        @Override
+        public int[] keys(int count, int universe, Random random) {
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = i % universe;
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Uniformly distributed keys
+     */
+    RANDOM {
+        @Override
+        public int[] keys(int count, int universe, Random random) {
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = random.nextInt(universe);
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Skewed keys: a few hot keys take most of the accesses (theta = 0.99)
+     */
+    ZIPFIAN {
+        @Override
+        public int[] keys(int count, int universe, Random random) {
+            ZipfianGenerator generator = new ZipfianGenerator(universe, 0.99);
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                // scatter the hot ranks over the key space so they are not all the smallest keys
+                keys[i] = (int) (scramble(generator.next(random)) % universe);
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Hot set: 5% of the keys, scattered over the key space, take 90% of the accesses and the rest
+     * are uniform over the other keys
+     */
+    HOTSPOT {
+        @Override
+        public int[] keys(int count, int universe, Random random) {
+            int hot = Math.max(1, universe / 20);
+            int[] keys = new int[count];
+            for (int i = 0; i < count; i++) {
+                int rank = random.nextInt(10) != 0 || hot == universe
+                        ? random.nextInt(hot) : hot + random.nextInt(universe - hot);
+                keys[i] = (int) (scramble(rank) % universe);
+            }
+            return keys;
+        }
+    },
+
+    /**
+     * Sorted keys taken alternately from both ends: 0, n-1, 1, n-2, ...
+     * Degenerates the plain BST and forces double rotations in the balanced trees
+     */
+    ADVERSARIAL {
+        @Override
+        public int[] keys(int count, int universe, Random random) {
+            int[] keys = new int[count];
+            int low = 0;
+            int high = universe - 1;
+            for (int i = 0; i < count; i++) {
+                if (low > high) {
+                    low = 0;
+                    high = universe - 1;
+                }
+                keys[i] = (i & 1) == 0 ? low++ : high--;
+            }
+            return keys;
+        }
+    };
+
+    /**
+     * Generates keys in the order they should be applied
+     *
+     * @param count    - number of keys
+     * @param universe - keys are taken from [0, universe)
+     * @param random   - source of randomness
+     * @return generated keys
+     */
+    public abstract int[] keys(int count, int universe, Random random);
+
+    private static long scramble(long value) {
+        // FNV-1a over the 8 bytes of the value
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < 8; i++) {
+            hash ^= value & 0xFF;
+            hash *= 0x100000001B3L;
+            value >>>= 8;
+        }
+        return hash & Long.MAX_VALUE;
+    }
+
+    /**
+     * Zipfian rank generator from Gray et al., "Quickly generating billion-record synthetic databases"
+     */
+    private static class ZipfianGenerator {
+        private final int items;
+        private final double theta;
+        private final double alpha;
+        private final double zetan;
+        private final double eta;
+
+        ZipfianGenerator(int items, double theta) {
+            this.items = items;
+            this.theta = theta;
+            this.alpha = 1.0 / (1.0 - theta);
+            this.zetan = zeta(items, theta);
+            double zeta2 = zeta(2, theta);
+            this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+        }
+
+        long next(Random random) {
+            double u = random.nextDouble();
+            double uz = u * zetan;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < 1.0 + Math.pow(0.5, theta)) {
+                return 1;
+            }
+            return (long) (items * Math.pow(eta * u - eta + 1, alpha));
+        }
+
+        private static double zeta(int n, double theta) {
+            double sum = 0;
+            for (int i = 1; i <= n; i++) {
+                sum += 1 / Math.pow(i, theta);
+            }
+            return sum;
+        }
+    }
+}
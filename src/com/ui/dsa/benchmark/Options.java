@@ -0,0 +1,103 @@
+package com.ui.dsa.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the benchmarks, each given as {@code option=value} or as
+ * {@code option=value,value,...}. A later occurrence of an option replaces an earlier one
+ */
+final class Options {
+
+    private final Map<String, String[]> values = new HashMap<>();
+
+    /**
+     * @param args  - the command line
+     * @param names - the accepted options
+     * @throws IllegalArgumentException if an argument is not of the form option=value or names an
+     *                                  unknown option
+     */
+    Options(String[] args, String... names) {
+        Set<String> known = new HashSet<>(Arrays.asList(names));
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected option=value: " + arg);
+            }
+            String name = arg.substring(0, eq);
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: " + name);
+            }
+            String[] list = arg.substring(eq + 1).split(",");
+            for (int i = 0; i < list.length; i++) {
+                list[i] = list[i].trim();
+            }
+            values.put(name, list);
+        }
+    }
+
+    /**
+     * @return the values of the option as constants of the enum, matched ignoring case, or the
+     * defaults if the option is not given
+     */
+    <T extends Enum<T>> List<T> enums(String name, Class<T> type, List<T> defaults) {
+        String[] list = values.get(name);
+        if (list == null) {
+            return defaults;
+        }
+        List<T> result = new ArrayList<>();
+        for (String value : list) {
+            result.add(Enum.valueOf(type, value.toUpperCase(Locale.ROOT)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the values of the option in upper case, or the defaults if the option is not given
+     */
+    List<String> names(String name, List<String> defaults) {
+        String[] list = values.get(name);
+        if (list == null) {
+            return defaults;
+        }
+        List<String> result = new ArrayList<>();
+        for (String value : list) {
+            result.add(value.toUpperCase(Locale.ROOT));
+        }
+        return result;
+    }
+
+    int[] ints(String name, int[] defaults) {
+        String[] list = values.get(name);
+        if (list == null) {
+            return defaults;
+        }
+        int[] result = new int[list.length];
+        for (int i = 0; i < list.length; i++) {
+            result[i] = Integer.parseInt(list[i]);
+        }
+        return result;
+    }
+
+    /**
+     * @return the first value of the option, or the default if the option is not given
+     */
+    int intValue(String name, int defaultValue) {
+        String[] list = values.get(name);
+        return list == null ? defaultValue : Integer.parseInt(list[0]);
+    }
+
+    /**
+     * @return the first value of the option, or the default if the option is not given
+     */
+    long longValue(String name, long defaultValue) {
+        String[] list = values.get(name);
+        return list == null ? defaultValue : Long.parseLong(list[0]);
+    }
+}
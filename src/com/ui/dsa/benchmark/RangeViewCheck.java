@@ -0,0 +1,301 @@
+package com.ui.dsa.benchmark;
+
+import com.ui.dsa.tree.AVLTree;
+import com.ui.dsa.tree.BPlusTree;
+import com.ui.dsa.tree.RBTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Randomized check of the range views of the trees against the views of {@link TreeSet}
+ * <p>
+ * Every round fills a tree and a {@code TreeSet} with the same random elements, opens a view on both
+ * with random bounds, narrows it a few times with random {@code subSet}, {@code headSet} and
+ * {@code tailSet} calls and then reads and changes the elements through it. Every call must return
+ * the same result or throw the same exception on both sides, and the whole tree must still hold the
+ * elements of the {@code TreeSet} after every change. Fails with an {@link AssertionError} on the first
+ * difference.
+ * <p>
+ * Usage: {@code RangeViewCheck [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code structures} - comma separated {@link Subject} names, all by default</li>
+ * <li>{@code rounds} - rounds per structure, 20000 by default</li>
+ * <li>{@code seed} - seed of the random operations, 42 by default</li>
+ * </ul>
+ */
+public class RangeViewCheck {
+
+    /**
+     * Trees with range views
+     */
+    enum Subject {
+        RBTREE {
+            @Override
+            Tree create() {
+                final RBTree<Integer> tree = new RBTree<>();
+                return new Tree() {
+                    public boolean insert(Integer data) {
+                        return tree.insert(data);
+                    }
+
+                    public SortedSet<Integer> view(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+                        return from == null ? tree.headSet(to, toInclusive)
+                                : to == null ? tree.tailSet(from, fromInclusive)
+                                : tree.subSet(from, fromInclusive, to, toInclusive);
+                    }
+
+                    public Iterable<Integer> elements() {
+                        return tree;
+                    }
+                };
+            }
+        },
+
+        AVLTREE {
+            @Override
+            Tree create() {
+                final AVLTree<Integer> tree = new AVLTree<>();
+                return new Tree() {
+                    public boolean insert(Integer data) {
+                        return tree.insert(data);
+                    }
+
+                    public SortedSet<Integer> view(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+                        return from == null ? tree.headSet(to, toInclusive)
+                                : to == null ? tree.tailSet(from, fromInclusive)
+                                : tree.subSet(from, fromInclusive, to, toInclusive);
+                    }
+
+                    public Iterable<Integer> elements() {
+                        tree.checkInvariants();
+                        return tree;
+                    }
+                };
+            }
+        },
+
+        BPLUSTREE {
+            @Override
+            Tree create() {
+                // a small fan-out, so that the few elements of a round span several levels
+                final BPlusTree<Integer> tree = new BPlusTree<>(4, null);
+                return new Tree() {
+                    public boolean insert(Integer data) {
+                        return tree.insert(data);
+                    }
+
+                    public SortedSet<Integer> view(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+                        return from == null ? tree.headSet(to, toInclusive)
+                                : to == null ? tree.tailSet(from, fromInclusive)
+                                : tree.subSet(from, fromInclusive, to, toInclusive);
+                    }
+
+                    public Iterable<Integer> elements() {
+                        tree.checkInvariants();
+                        return tree;
+                    }
+                };
+            }
+        };
+
+        abstract Tree create();
+    }
+
+    /**
+     * Common operations of the checked trees
+     */
+    interface Tree {
+        boolean insert(Integer data);
+
+        /**
+         * Opens a view of the tree; a null bound means the range is open on that side, but not on both
+         */
+        SortedSet<Integer> view(Integer from, boolean fromInclusive, Integer to, boolean toInclusive);
+
+        /**
+         * @return all elements of the tree, after checking its invariants where it has a check
+         */
+        Iterable<Integer> elements();
+    }
+
+    private List<Subject> subjects = Arrays.asList(Subject.values());
+    private int rounds = 20000;
+    private long seed = 42;
+
+    public static void main(String[] args) {
+        RangeViewCheck check = new RangeViewCheck();
+        Options options = new Options(args, "structures", "rounds", "seed");
+        check.subjects = options.enums("structures", Subject.class, check.subjects);
+        check.rounds = options.intValue("rounds", check.rounds);
+        check.seed = options.longValue("seed", check.seed);
+        check.run();
+    }
+
+    private void run() {
+        for (Subject subject : subjects) {
+            Random random = new Random(seed);
+            for (int round = 0; round < rounds; round++) {
+                runRound(subject, round, random);
+            }
+            System.out.printf("%-12s %d rounds ok%n", subject, rounds);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void runRound(Subject subject, int round, Random random) {
+        int universe = 1 + random.nextInt(40);
+        Tree tree = subject.create();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = random.nextInt(2 * universe); i > 0; i--) {
+            int data = random.nextInt(universe);
+            same(subject + " round " + round + " insert " + data, tree.insert(data), expected.add(data));
+        }
+        String trace = subject + " round " + round;
+
+        // open a view with one or two random bounds, only some of them valid
+        Integer from = random.nextInt(4) == 0 ? null : random.nextInt(universe);
+        Integer to = from != null && random.nextInt(3) == 0 ? null : random.nextInt(universe);
+        boolean fromInclusive = random.nextBoolean();
+        boolean toInclusive = random.nextBoolean();
+        trace += " view(" + from + ", " + fromInclusive + ", " + to + ", " + toInclusive + ")";
+        Object actual = outcome(() -> tree.view(from, fromInclusive, to, toInclusive));
+        Object wanted = outcome(() -> from == null ? expected.headSet(to, toInclusive)
+                : to == null ? expected.tailSet(from, fromInclusive)
+                : expected.subSet(from, fromInclusive, to, toInclusive));
+        if (!(actual instanceof SortedSet) || !(wanted instanceof SortedSet)) {
+            same(trace, describe(actual), describe(wanted));
+            return;
+        }
+        SortedSet<Integer> view = (SortedSet<Integer>) actual;
+        SortedSet<Integer> expectedView = (SortedSet<Integer>) wanted;
+
+        // narrow the view through the SortedSet methods, which may not widen it
+        for (int i = random.nextInt(4); i > 0; i--) {
+            int low = random.nextInt(universe + 2) - 1;
+            int high = random.nextInt(universe + 2) - 1;
+            int kind = random.nextInt(3);
+            trace += kind == 0 ? " subSet(" + low + ", " + high + ")" : kind == 1 ? " headSet(" + high + ")" : " tailSet(" + low + ")";
+            SortedSet<Integer> current = view;
+            SortedSet<Integer> currentExpected = expectedView;
+            actual = outcome(() -> kind == 0 ? current.subSet(low, high) : kind == 1 ? current.headSet(high) : current.tailSet(low));
+            wanted = outcome(() -> kind == 0 ? currentExpected.subSet(low, high)
+                    : kind == 1 ? currentExpected.headSet(high) : currentExpected.tailSet(low));
+            if (!(actual instanceof SortedSet) || !(wanted instanceof SortedSet)) {
+                same(trace, describe(actual), describe(wanted));
+                break;
+            }
+            view = (SortedSet<Integer>) actual;
+            expectedView = (SortedSet<Integer>) wanted;
+        }
+
+        for (int i = random.nextInt(12); i > 0; i--) {
+            compareView(trace, view, expectedView);
+            int data = random.nextInt(universe + 2) - 1;
+            SortedSet<Integer> current = view;
+            SortedSet<Integer> currentExpected = expectedView;
+            switch (random.nextInt(7)) {
+                case 0:
+                    trace += " contains(" + data + ")";
+                    same(trace, view.contains(data), expectedView.contains(data));
+                    break;
+                case 1:
+                    trace += " add(" + data + ")";
+                    same(trace, outcome(() -> current.add(data)), outcome(() -> currentExpected.add(data)));
+                    break;
+                case 2:
+                    trace += " remove(" + data + ")";
+                    same(trace, view.remove(data), expectedView.remove(data));
+                    break;
+                case 3:
+                    // the same seed removes the same positions from both views
+                    long removalSeed = random.nextLong();
+                    trace += " iterator().remove()";
+                    removeSome(view, removalSeed);
+                    removeSome(expectedView, removalSeed);
+                    break;
+                case 4:
+                    int modulus = 2 + random.nextInt(3);
+                    trace += " removeIf(x % " + modulus + " == 0)";
+                    same(trace, view.removeIf(x -> x % modulus == 0), expectedView.removeIf(x -> x % modulus == 0));
+                    break;
+                case 5:
+                    trace += " clear()";
+                    view.clear();
+                    expectedView.clear();
+                    break;
+                default:
+                    trace += " insert(" + data + ")";
+                    same(trace, tree.insert(data), expected.add(data));
+            }
+            List<Integer> all = new ArrayList<>();
+            for (Integer element : tree.elements()) {
+                all.add(element);
+            }
+            same(trace + " tree", all, new ArrayList<>(expected));
+        }
+        compareView(trace, view, expectedView);
+    }
+
+    /**
+     * Walks the view and removes a random part of its elements through the iterator, also right
+     * after creating it and twice in a row, which must fail
+     */
+    private void removeSome(SortedSet<Integer> view, long removalSeed) {
+        Random random = new Random(removalSeed);
+        Iterator<Integer> iterator = view.iterator();
+        expectFailure(iterator::remove);
+        while (iterator.hasNext()) {
+            iterator.next();
+            if (random.nextInt(3) == 0) {
+                iterator.remove();
+                expectFailure(iterator::remove);
+            }
+        }
+    }
+
+    private static void expectFailure(Runnable call) {
+        try {
+            call.run();
+        } catch (IllegalStateException e) {
+            return;
+        }
+        throw new AssertionError("remove without next did not throw IllegalStateException");
+    }
+
+    private static void compareView(String trace, SortedSet<Integer> view, SortedSet<Integer> expected) {
+        same(trace + " elements", new ArrayList<>(view), new ArrayList<>(expected));
+        same(trace + " size", view.size(), expected.size());
+        same(trace + " isEmpty", view.isEmpty(), expected.isEmpty());
+        same(trace + " first", describe(outcome(view::first)), describe(outcome(expected::first)));
+        same(trace + " last", describe(outcome(view::last)), describe(outcome(expected::last)));
+    }
+
+    /**
+     * @return the result of the call, or the class of the exception it threw
+     */
+    private static Object outcome(Supplier<?> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private static Object describe(Object outcome) {
+        return outcome instanceof SortedSet ? "a view" : outcome;
+    }
+
+    private static void same(String trace, Object actual, Object expected) {
+        if (!Objects.equals(actual, expected)) {
+            throw new AssertionError(trace + ": " + actual + " instead of " + expected);
+        }
+    }
+}
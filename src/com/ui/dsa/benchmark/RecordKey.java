@@ -0,0 +1,65 @@
+package com.ui.dsa.benchmark;
+
+import java.util.Comparator;
+
+/**
+ * Composite key of a region, a timestamp and an id, ordered by the fields in this order. The natural
+ * ordering goes through a chain of key extractors as composite keys usually do, while {@link #BY_FIELDS}
+ * compares a precomputed rank of the region and the primitive fields directly
+ */
+public final class RecordKey implements Comparable<RecordKey> {
+
+    private static final Comparator<RecordKey> NATURAL = Comparator.comparing((RecordKey key) -> key.region)
+            .thenComparingLong(key -> key.timestamp)
+            .thenComparingInt(key -> key.id);
+
+    /**
+     * Same ordering as the natural one for keys whose region ranks follow the order of the regions
+     */
+    public static final Comparator<RecordKey> BY_FIELDS = (first, second) -> {
+        if (first.regionRank != second.regionRank) {
+            return first.regionRank < second.regionRank ? -1 : 1;
+        }
+        if (first.timestamp != second.timestamp) {
+            return first.timestamp < second.timestamp ? -1 : 1;
+        }
+        return Integer.compare(first.id, second.id);
+    };
+
+    private final String region;
+    // position of the region among all regions in ascending order
+    private final int regionRank;
+    private final long timestamp;
+    private final int id;
+
+    public RecordKey(String region, int regionRank, long timestamp, int id) {
+        this.region = region;
+        this.regionRank = regionRank;
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    @Override
+    public int compareTo(RecordKey other) {
+        return NATURAL.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RecordKey)) {
+            return false;
+        }
+        RecordKey other = (RecordKey) o;
+        return region.equals(other.region) && timestamp == other.timestamp && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return (region.hashCode() * 31 + Long.hashCode(timestamp)) * 31 + id;
+    }
+
+    @Override
+    public String toString() {
+        return region + "/" + timestamp + "/" + id;
+    }
+}
@@ -0,0 +1,312 @@
+package com.ui.dsa.benchmark;
+
+import com.ui.dsa.tree.AVLTree;
+import com.ui.dsa.tree.ArrayRBTree;
+import com.ui.dsa.tree.BPlusTree;
+import com.ui.dsa.tree.BSTree;
+import com.ui.dsa.tree.IntAVLTree;
+import com.ui.dsa.tree.IntRBTree;
+import com.ui.dsa.tree.PersistentRBTree;
+import com.ui.dsa.tree.RBTree;
+import com.ui.dsa.tree.SplayTree;
+import com.ui.dsa.tree.Treap;
+
+import java.util.TreeMap;
+
+/**
+ * Data structures under benchmark
+ */
+public enum Structure {
+
+    BSTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final BSTree<K> tree = new BSTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    AVLTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final AVLTree<K> tree = new AVLTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    RBTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final RBTree<K> tree = new RBTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link RBTree} with a find cache of 65536 nodes
+     */
+    CACHED_RBTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final RBTree<K> tree = new RBTree<>();
+            tree.enableFindCache(1 << 16);
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link PersistentRBTree}, replacing the current version on every write
+     */
+    PERSISTENT_RBTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            return new Target<K>() {
+                private PersistentRBTree<K> tree = PersistentRBTree.empty();
+
+                public void insert(K key) {
+                    tree = tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree = tree.delete(key);
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link BPlusTree} with {@value BPlusTree#DEFAULT_ORDER} children per inner node
+     */
+    BPLUSTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final BPlusTree<K> tree = new BPlusTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link SplayTree}, which moves every accessed key to the root
+     */
+    SPLAYTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final SplayTree<K> tree = new SplayTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    /**
+     * {@link Treap}, which raises the priority of found keys
+     */
+    TREAP {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final Treap<K> tree = new Treap<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    ARRAY_RBTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final ArrayRBTree<K> tree = new ArrayRBTree<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert(key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find(key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete(key);
+                }
+            };
+        }
+    },
+
+    INT_AVLTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final IntAVLTree tree = new IntAVLTree();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert((Integer) key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find((Integer) key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete((Integer) key);
+                }
+            };
+        }
+
+        @Override
+        public boolean generic() {
+            return false;
+        }
+    },
+
+    INT_RBTREE {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final IntRBTree tree = new IntRBTree();
+            return new Target<K>() {
+                public void insert(K key) {
+                    tree.insert((Integer) key);
+                }
+
+                public boolean find(K key) {
+                    return tree.find((Integer) key) != null;
+                }
+
+                public void delete(K key) {
+                    tree.delete((Integer) key);
+                }
+            };
+        }
+
+        @Override
+        public boolean generic() {
+            return false;
+        }
+    },
+
+    TREEMAP {
+        @Override
+        public <K extends Comparable<K>> Target<K> create() {
+            final TreeMap<K, Boolean> map = new TreeMap<>();
+            return new Target<K>() {
+                public void insert(K key) {
+                    map.put(key, Boolean.TRUE);
+                }
+
+                public boolean find(K key) {
+                    return map.containsKey(key);
+                }
+
+                public void delete(K key) {
+                    map.remove(key);
+                }
+            };
+        }
+    };
+
+    /**
+     * Creates a new empty instance of the structure
+     *
+     * @return the structure behind the common benchmark interface
+     */
+    public abstract <K extends Comparable<K>> Target<K> create();
+
+    /**
+     * @return false if the structure only accepts {@link Integer} keys
+     */
+    public boolean generic() {
+        return true;
+    }
+
+    /**
+     * Common operations of all benchmarked structures
+     */
+    public interface Target<K> {
+        void insert(K key);
+
+        boolean find(K key);
+
+        void delete(K key);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ui.dsa.benchmark;
+
+import java.util.Comparator;
+
+/**
+ * Long string key whose natural ordering is the ordering of the strings. The keys of one benchmark
+ * share a long common prefix, so {@link #compareTo} scans the whole prefix on every call, while
+ * {@link #BY_PREFIX} first compares eight characters after it, packed into a long when the key is made
+ */
+public final class TextKey implements Comparable<TextKey> {
+
+    /**
+     * Same ordering as the natural one for keys with a common prefix of the same length and characters
+     * below 256, with one long comparison for most pairs
+     */
+    public static final Comparator<TextKey> BY_PREFIX = (first, second) -> {
+        int cmp = Long.compareUnsigned(first.prefix, second.prefix);
+        return cmp != 0 ? cmp : first.text.compareTo(second.text);
+    };
+
+    private final String text;
+    // eight characters after the common prefix, one per byte, zero-padded
+    private final long prefix;
+
+    /**
+     * @param text   - the key
+     * @param offset - length of the prefix shared by all keys
+     */
+    public TextKey(String text, int offset) {
+        this.text = text;
+        long packed = 0;
+        for (int i = offset; i < offset + 8; i++) {
+            packed = packed << 8 | (i < text.length() ? text.charAt(i) & 0xFF : 0);
+        }
+        this.prefix = packed;
+    }
+
+    @Override
+    public int compareTo(TextKey other) {
+        return text.compareTo(other.text);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TextKey && ((TextKey) o).text.equals(text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,149 @@
+package com.ui.dsa.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Benchmark of the trees against {@link java.util.TreeMap}
+ * <p>
+ * Every case is run for a number of warm-up iterations, which are discarded, and then for a number of
+ * measured iterations. The structure is rebuilt and all keys are boxed before each iteration, so only the
+ * operations themselves are timed, with one pair of {@code System.nanoTime()} calls per iteration.
+ * <p>
+ * Usage: {@code TreeBenchmark [option=value ...]}, where the options are
+ * <ul>
+ * <li>{@code structures} - comma separated {@link Structure} names, all by default</li>
+ * <li>{@code workloads} - comma separated {@link Workload} names, all by default</li>
+ * <li>{@code distributions} - comma separated {@link KeyDistribution} names, all by default</li>
+ * <li>{@code sizes} - comma separated tree sizes, from 1000 to 10000000; 1000,100000 by default</li>
+ * <li>{@code warmup} - warm-up iterations, 3 by default</li>
+ * <li>{@code iterations} - measured iterations, 5 by default</li>
+ * <li>{@code seed} - seed of the key generator, 42 by default</li>
+ * </ul>
+ */
+public class TreeBenchmark {
+
+    private List<Structure> structures = Arrays.asList(Structure.values());
+    private List<Workload> workloads = Arrays.asList(Workload.values());
+    private List<KeyDistribution> distributions = Arrays.asList(KeyDistribution.values());
+    private int[] sizes = {1000, 100000};
+    private int warmup = 3;
+    private int iterations = 5;
+    private long seed = 42;
+
+    private long sink;
+
+    public static void main(String[] args) {
+        TreeBenchmark benchmark = new TreeBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+    }
+
+    private void parse(String[] args) {
+        Options options = new Options(args,
+                "structures", "workloads", "distributions", "sizes", "warmup", "iterations", "seed");
+        structures = options.enums("structures", Structure.class, structures);
+        workloads = options.enums("workloads", Workload.class, workloads);
+        distributions = options.enums("distributions", KeyDistribution.class, distributions);
+        sizes = options.ints("sizes", sizes);
+        warmup = options.intValue("warmup", warmup);
+        iterations = options.intValue("iterations", iterations);
+        seed = options.longValue("seed", seed);
+    }
+
+    private void run() {
+        System.out.printf("%-18s %-8s %-12s %10s %12s %12s %12s%n",
+                "structure", "workload", "distribution", "size", "ns/op", "stdev", "min ns/op");
+        for (Workload workload : workloads) {
+            for (KeyDistribution distribution : distributions) {
+                for (int size : sizes) {
+                    for (Structure structure : structures) {
+                        runCase(structure, workload, distribution, size);
+                    }
+                }
+            }
+        }
+        System.out.println("sink: " + sink);
+    }
+
+    private void runCase(Structure structure, Workload workload, KeyDistribution distribution, int size) {
+        Random random = new Random(seed);
+        Integer[] preload = workload.preloaded() ? box(preloadKeys(distribution, size, random)) : new Integer[0];
+        Integer[] keys = box(distribution.keys(size, size, random));
+        byte[] mix = mix(size, random);
+
+        double[] results = new double[iterations];
+        try {
+            for (int i = 0; i < warmup + iterations; i++) {
+                Structure.Target<Integer> target = structure.create();
+                for (Integer key : preload) {
+                    target.insert(key);
+                }
+                long start = System.nanoTime();
+                sink += workload.run(target, keys, mix);
+                long elapsed = System.nanoTime() - start;
+                if (i >= warmup) {
+                    results[i - warmup] = (double) elapsed / keys.length;
+                }
+            }
+        } catch (RuntimeException | StackOverflowError e) {
+            System.out.printf("%-18s %-8s %-12s %10d failed: %s%n", structure, workload, distribution, size, e);
+            return;
+        }
+
+        double mean = 0;
+        double min = Double.MAX_VALUE;
+        for (double result : results) {
+            mean += result;
+            min = Math.min(min, result);
+        }
+        mean /= results.length;
+        double variance = 0;
+        for (double result : results) {
+            variance += (result - mean) * (result - mean);
+        }
+        double stdev = results.length > 1 ? Math.sqrt(variance / (results.length - 1)) : 0;
+        System.out.printf(Locale.ROOT, "%-18s %-8s %-12s %10d %12.1f %12.1f %12.1f%n",
+                structure, workload, distribution, size, mean, stdev, min);
+    }
+
+    /**
+     * Keys the structure is filled with before a find, delete or mixed workload: the distribution order
+     * for the deterministic distributions, so their tree shapes are reproduced, and a shuffle otherwise
+     */
+    private static int[] preloadKeys(KeyDistribution distribution, int size, Random random) {
+        if (distribution == KeyDistribution.SEQUENTIAL || distribution == KeyDistribution.ADVERSARIAL) {
+            return distribution.keys(size, size, random);
+        }
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = keys[i];
+            keys[i] = keys[j];
+            keys[j] = tmp;
+        }
+        return keys;
+    }
+
+    private static byte[] mix(int size, Random random) {
+        byte[] mix = new byte[size];
+        for (int i = 0; i < size; i++) {
+            int p = random.nextInt(10);
+            mix[i] = p == 0 ? Workload.INSERT_OP : p == 1 ? Workload.DELETE_OP : Workload.FIND_OP;
+        }
+        return mix;
+    }
+
+    private static Integer[] box(int[] keys) {
+        Integer[] boxed = new Integer[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            boxed[i] = keys[i];
+        }
+        return boxed;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ui.dsa.benchmark;
+
+/**
+ * Operation mixes measured by the benchmark
+ */
+public enum Workload {
+
+    /**
+     * Fills an empty structure with the operation keys
+     */
+    INSERT {
+        @Override
+        public boolean preloaded() {
+            return false;
+        }
+
+        @Override
+        public long run(Structure.Target<Integer> target, Integer[] keys, byte[] mix) {
+            for (Integer key : keys) {
+                target.insert(key);
+            }
+            return keys.length;
+        }
+    },
+
+    /**
+     * Looks the operation keys up in a preloaded structure
+     */
+    FIND {
+        @Override
+        public long run(Structure.Target<Integer> target, Integer[] keys, byte[] mix) {
+            long found = 0;
+            for (Integer key : keys) {
+                if (target.find(key)) found++;
+            }
+            return found;
+        }
+    },
+
+    /**
+     * Deletes the operation keys from a preloaded structure
+     */
+    DELETE {
+        @Override
+        public long run(Structure.Target<Integer> target, Integer[] keys, byte[] mix) {
+            for (Integer key : keys) {
+                target.delete(key);
+            }
+            return keys.length;
+        }
+    },
+
+    /**
+     * 80% finds, 10% inserts and 10% deletes on a preloaded structure
+     */
+    MIXED {
+        @Override
+        public long run(Structure.Target<Integer> target, Integer[] keys, byte[] mix) {
+            long found = 0;
+            for (int i = 0; i < keys.length; i++) {
+                switch (mix[i]) {
+                    case INSERT_OP:
+                        target.insert(keys[i]);
+                        break;
+                    case DELETE_OP:
+                        target.delete(keys[i]);
+                        break;
+                    default:
+                        if (target.find(keys[i])) found++;
+                }
+            }
+            return found;
+        }
+    };
+
+    static final byte FIND_OP = 0;
+    static final byte INSERT_OP = 1;
+    static final byte DELETE_OP = 2;
+
+    /**
+     * @return true if the structure must be filled before the measured operations
+     */
+    public boolean preloaded() {
+        return true;
+    }
+
+    /**
+     * Runs the measured operations
+     *
+     * @param target - structure under benchmark
+     * @param keys   - operation keys, boxed in advance
+     * @param mix    - operation kind per key, used by {@link #MIXED}
+     * @return a value depending on the results, to keep the JIT from removing the work
+     */
+    public abstract long run(Structure.Target<Integer> target, Integer[] keys, byte[] mix);
+}
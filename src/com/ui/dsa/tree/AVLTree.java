@@ -1,237 +1,478 @@
 package com.ui.dsa.tree;
 
+import com.ui.dsa.tree.metrics.TreeMetrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * AVL tree
  *
  * @param <E> - data type of nodes
  */
-public class AVLTree<E extends Comparable<E>> {
+public class AVLTree<E extends Comparable<E>> implements Iterable<E>, NavigableTree<E> {
+
+    // elements from which the two halves of a build or a set operation are processed in parallel
+    private static final int PARALLEL_GRAIN = 1 << 13;
 
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
     private Node root;
     private int size;
+    // metrics of the tree, null until enableMetrics is called
+    private TreeMetrics metrics;
 
     public AVLTree() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public AVLTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
         this.root = null;
         this.size = 0;
     }
 
-    public void insert(E data) {
-        Node current = new Node(data);
-        addLeaf(current);
-        balance(current);
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromSorted(E[] data) {
+        return fromSorted(Arrays.asList(data).iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromSorted(List<? extends E> data) {
+        return fromSorted(data.iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromSorted(Iterator<? extends E> data) {
+        List<E> sorted = SortedInput.distinct(data);
+        AVLTree<E> tree = new AVLTree<>();
+        tree.root = tree.build(sorted, 0, sorted.size() - 1);
+        tree.size = sorted.size();
+        return tree;
+    }
+
+    /**
+     * Builds a height-balanced tree from data in any order. The data is sorted in parallel, and
+     * subtrees of at least {@value #PARALLEL_GRAIN} elements are built in parallel on the common
+     * {@link ForkJoinPool}. Duplicates are dropped
+     *
+     * @param data - elements in any order
+     * @return the new tree
+     * @throws NullPointerException if an element is null
+     */
+    public static <E extends Comparable<E>> AVLTree<E> fromUnsorted(Collection<? extends E> data) {
+        AVLTree<E> tree = new AVLTree<>();
+        tree.insertAll(data);
+        return tree;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts the data with one descent from the root, rebalancing on the way back up
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return insertData(data);
+        }
+        long start = System.nanoTime();
+        boolean inserted = insertData(data);
+        metrics.recordInsert(System.nanoTime() - start);
+        return inserted;
+    }
+
+    private boolean insertData(E data) {
+        int oldSize = size;
+        root = insert(root, data);
+        return size != oldSize;
     }
 
+    /**
+     * Deletes the data with one descent from the root to the node and on to its predecessor
+     *
+     * @return true if the element was in the tree
+     */
     public boolean delete(E data) {
-        Node current = find(data);
-        Node parent = parent(current);
-        if (current != null) {
-            size--;
-            deleteNode(data);
-            if (parent != null) balance(parent);
-            return true;
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return deleteData(data);
+        }
+        long start = System.nanoTime();
+        boolean deleted = deleteData(data);
+        metrics.recordDelete(System.nanoTime() - start);
+        return deleted;
+    }
+
+    private boolean deleteData(E data) {
+        int oldSize = size;
+        root = delete(root, data);
+        return size != oldSize;
+    }
+
+    /**
+     * Inserts a batch of elements. The batch is sorted and built into a tree, which is merged with this
+     * one by {@link #union(AVLTree, AVLTree)} in O(m log(n / m + 1)) for m elements instead of m descents
+     *
+     * @return true if any element was not in the tree before
+     * @throws NullPointerException if an element is null
+     */
+    public boolean insertAll(Collection<? extends E> data) {
+        List<E> sorted = SortedInput.sort(data, comparator);
+        int oldSize = size;
+        setRoot(union(detach(), build(sorted, 0, sorted.size() - 1)));
+        return size != oldSize;
+    }
+
+    /**
+     * Deletes a batch of elements. The batch is sorted and built into a tree, which is taken away from
+     * this one by {@link #difference(AVLTree, AVLTree)} in O(m log(n / m + 1)) for m elements instead
+     * of m descents
+     *
+     * @return true if any element was in the tree
+     * @throws NullPointerException if an element is null
+     */
+    public boolean deleteAll(Collection<? extends E> data) {
+        List<E> sorted = SortedInput.sort(data, comparator);
+        int oldSize = size;
+        setRoot(difference(detach(), build(sorted, 0, sorted.size() - 1)));
+        return size != oldSize;
+    }
+
+    /**
+     * Merges two trees into a new one in O(m log(n / m + 1)), m being the size of the smaller tree.
+     * Both trees are consumed: their nodes are moved into the result and they are left empty. Where
+     * both trees hold equal elements, the element of the first one is kept. Subtrees of at least
+     * {@value #PARALLEL_GRAIN} elements are merged in parallel on the common {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in either tree
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> AVLTree<E> union(AVLTree<E> first, AVLTree<E> second) {
+        AVLTree<E> tree = new AVLTree<>(ordering(first, second));
+        tree.setRoot(first == second ? first.detach() : tree.union(first.detach(), second.detach()));
+        return tree;
+    }
+
+    /**
+     * Intersects two trees into a new one in O(m log(n / m + 1)), m being the size of the smaller
+     * tree. Both trees are consumed and left empty. The elements of the first tree are kept. Subtrees
+     * of at least {@value #PARALLEL_GRAIN} elements are intersected in parallel on the common
+     * {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in both trees
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> AVLTree<E> intersection(AVLTree<E> first, AVLTree<E> second) {
+        AVLTree<E> tree = new AVLTree<>(ordering(first, second));
+        tree.setRoot(first == second ? first.detach() : tree.intersection(first.detach(), second.detach()));
+        return tree;
+    }
+
+    /**
+     * Takes the elements of the second tree away from the first one into a new tree in
+     * O(m log(n / m + 1)), m being the size of the smaller tree. Both trees are consumed and left
+     * empty. Subtrees of at least {@value #PARALLEL_GRAIN} elements are processed in parallel on the
+     * common {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in the first tree but not in the second one
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> AVLTree<E> difference(AVLTree<E> first, AVLTree<E> second) {
+        AVLTree<E> tree = new AVLTree<>(ordering(first, second));
+        if (first == second) {
+            // a tree taken away from itself leaves nothing
+            first.detach();
+        } else {
+            tree.setRoot(tree.difference(first.detach(), second.detach()));
+        }
+        return tree;
+    }
+
+    /**
+     * Joins two trees around the data in O(log n). Both trees are consumed and left empty
+     *
+     * @param left  - tree of elements less than the data
+     * @param right - tree of elements greater than the data
+     * @return the tree of the elements of both trees and the data
+     * @throws IllegalArgumentException if the trees are not ordered around the data or are ordered by
+     *                                  different comparators
+     */
+    public static <E extends Comparable<E>> AVLTree<E> join(AVLTree<E> left, E data, AVLTree<E> right) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        AVLTree<E> tree = new AVLTree<>(ordering(left, right));
+        if (!left.isEmpty() && tree.compare(left.max(), data) >= 0 || !right.isEmpty() && tree.compare(right.min(), data) <= 0) {
+            throw new IllegalArgumentException("Trees are not ordered around " + data);
+        }
+        tree.setRoot(tree.join(left.detach(), tree.new Node(data), right.detach()));
+        return tree;
+    }
+
+    /**
+     * Joins two trees in O(log n). Both trees are consumed and left empty
+     *
+     * @param left  - tree of elements less than those of the right one
+     * @param right - tree of elements greater than those of the left one
+     * @return the tree of the elements of both trees
+     * @throws IllegalArgumentException if the trees overlap or are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> AVLTree<E> join(AVLTree<E> left, AVLTree<E> right) {
+        AVLTree<E> tree = new AVLTree<>(ordering(left, right));
+        if (!left.isEmpty() && !right.isEmpty() && tree.compare(left.max(), right.min()) >= 0) {
+            throw new IllegalArgumentException("Trees overlap");
         }
-        return false;
+        tree.setRoot(tree.join(left.detach(), right.detach()));
+        return tree;
+    }
+
+    /**
+     * @return the common comparator of two trees that are combined
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    private static <E extends Comparable<E>> Comparator<? super E> ordering(AVLTree<E> first, AVLTree<E> second) {
+        if (!Objects.equals(first.comparator, second.comparator)) {
+            throw new IllegalArgumentException("Trees are ordered by different comparators");
+        }
+        return first.comparator;
+    }
+
+    /**
+     * Splits the tree at the data in O(log n). This tree keeps the elements less than the data
+     *
+     * @return the tree of the elements greater than or equal to the data
+     */
+    public AVLTree<E> split(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        Split split = split(root, data);
+        AVLTree<E> greater = new AVLTree<E>(comparator);
+        greater.setRoot(split.found == null ? split.right : join(null, split.found, split.right));
+        setRoot(split.left);
+        return greater;
     }
 
     public Node find(E data) {
-        if (root != null) {
-            Node current = root;
-            while (true) {
-                if (current.getData().compareTo(data) > 0 && current.getLeft() != null) {
-                    current = current.getLeft();
-                } else if (current.getData().compareTo(data) < 0 && current.getRight() != null) {
-                    current = current.getRight();
-                } else if (current.getData().compareTo(data) == 0) {
-                    return current;
-                } else {
-                    return null;
-                }
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return findNode(data);
+        }
+        long start = System.nanoTime();
+        Node found = findNode(data);
+        metrics.recordFind(System.nanoTime() - start);
+        return found;
+    }
+
+    private Node findNode(E data) {
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp > 0) {
+                current = current.getLeft();
+            } else if (cmp < 0) {
+                current = current.getRight();
+            } else {
+                return current;
             }
         }
         return null;
     }
 
-    private void addLeaf(Node current) {
-        if (root == null) {
+    /**
+     * Inserts the data into the subtree, rebalancing every node on the way back up
+     *
+     * @return the new root of the subtree
+     */
+    private Node insert(Node current, E data) {
+        if (current == null) {
             size++;
-            root = current;
+            return new Node(data);
+        }
+        int cmp = compare(current.getData(), data);
+        if (cmp > 0) {
+            current.setLeft(insert(current.getLeft(), data));
+        } else if (cmp < 0) {
+            current.setRight(insert(current.getRight(), data));
         } else {
-            Node tmp = root;
-            if (find((E) current.getData()) == null) {
-                while (true) {
-                    if (tmp.getData().compareTo(current.getData()) > 0) {
-                        if (tmp.getLeft() != null) {
-                            tmp = tmp.getLeft();
-                        } else {
-                            tmp.setLeft(current);
-                            size++;
-                            return;
-                        }
-                    } else if (tmp.getData().compareTo(current.getData()) < 0) {
-                        if (tmp.getRight() != null) {
-                            tmp = tmp.getRight();
-                        } else {
-                            tmp.setRight(current);
-                            size++;
-                            return;
-                        }
-                    } else { return; }
-                }
-            }
+            // the element already exists
+            return current;
         }
+        return balance(current);
     }
 
-    private void deleteNode(E data) {
-        if (size != 0) {
-            Node current = find(data);
-            if (current != null) {
-                // has no children
-                if (current.getLeft() == null && current.getRight() == null) {
-                    if (parent(current) == null) {
-                        root = null;
-                    } else {
-                        replace(current, null);
-                    }
-                }
-                // has only left child
-                else if (current.getLeft() != null && current.getRight() == null) {
-                    if (parent(current) == null) {
-                        root = current.getLeft();
-                    } else {
-                        replace(current, current.getLeft());
-                    }
-                }
-                // if only right child
-                else if (current.getLeft() == null && current.getRight() != null) {
-                    if (parent(current) == null) {
-                        root = current.getRight();
-                    } else {
-                        replace(current, current.getRight());
-                    }
-                }
-                // if the node has 2 children
-                else {
-                    Node pred = predecessor(current);
-                    delete((E) pred.getData());
-                    current.setData(pred.getData());
-                }
-                size--;
-            }
+    /**
+     * Deletes the data from the subtree, rebalancing every node on the way back up
+     *
+     * @return the new root of the subtree
+     */
+    private Node delete(Node current, E data) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = compare(current.getData(), data);
+        if (cmp > 0) {
+            current.setLeft(delete(current.getLeft(), data));
+        } else if (cmp < 0) {
+            current.setRight(delete(current.getRight(), data));
+        } else if (current.getLeft() == null) {
+            size--;
+            return current.getRight();
+        } else if (current.getRight() == null) {
+            size--;
+            return current.getLeft();
+        } else {
+            // the node has 2 children: replace its data with the predecessor and unlink the predecessor
+            Node pred = predecessor(current);
+            current.setData(pred.getData());
+            current.setLeft(deleteMax(current.getLeft()));
+            size--;
         }
+        return balance(current);
     }
 
-    private void replace(Node current, Node child) {
-        if (parent(current).getData().compareTo(current.getData()) > 0) {
-            parent(current).setLeft(child);
-        } else { parent(current).setRight(child); }
+    /**
+     * Unlinks the maximum node of the subtree without comparing, rebalancing every node on the way back up
+     *
+     * @return the new root of the subtree
+     */
+    private Node deleteMax(Node current) {
+        if (current.getRight() == null) {
+            return current.getLeft();
+        }
+        current.setRight(deleteMax(current.getRight()));
+        return balance(current);
     }
 
-
-    public void balance(Node current) {
-        setBalance(current);
+    /**
+     * Restores the height and balance of the node, whose subtrees are already balanced
+     *
+     * @return the new root of the subtree
+     */
+    public Node balance(Node current) {
+        update(current);
         int balance = current.getBalance();
         // check the balance
         if (balance == -2) {
-            current = rotateRight(current);
+            if (current.getLeft().getBalance() > 0) {
+                current.setLeft(rotateLeft(current.getLeft()));
+            }
+            return rotateRight(current);
         } else if (balance == 2) {
-            current = rotateLeft(current);
-        } else {
-            // while not root
-            Node parent = parent(current);
-            if (parent != null) {
-                balance(parent);
+            if (current.getRight().getBalance() < 0) {
+                current.setRight(rotateRight(current.getRight()));
             }
+            return rotateLeft(current);
         }
+        return current;
     }
 
+    /**
+     * Rotates the subtree to the left
+     *
+     * @return the new root of the subtree
+     */
     public Node rotateLeft(Node current) {
-        Node y = current.getRight();
-        Node parent = parent(current);
-        if (findHeight(current.getRight().getRight()) >= findHeight(current.getRight().getLeft())) {
-            Node leftChildOfY = y.getLeft();
-            y.setLeft(current);
-            current.setRight(leftChildOfY);
-            if (parent != null && parent.getData().compareTo(y.getData()) >= 0) {
-                parent.setLeft(y);
-            } else if (parent != null) {
-                parent.setRight(y);
-            } else {
-                root = y;
-            }
-            setBalance(current);
-            return y;
-        } else {
-            Node x = y.getLeft();
-            Node leftChildOfX = x.getLeft();
-            Node saved_right_child_of_x = x.getRight();
-            x.setRight(y);
-            x.setLeft(current);
-            y.setLeft(saved_right_child_of_x);
-            current.setRight(leftChildOfX);
-            if (parent != null && parent.getData().compareTo(x.getData()) >= 0) {
-                parent.setLeft(x);
-            } else if (parent != null) {
-                parent.setRight(x);
-            } else {
-                root = x;
-            }
-            setBalance(current);
-            setBalance(x);
-            return x;
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countRotation();
         }
+        Node y = current.getRight();
+        current.setRight(y.getLeft());
+        y.setLeft(current);
+        update(current);
+        update(y);
+        return y;
     }
 
+    /**
+     * Rotates the subtree to the right
+     *
+     * @return the new root of the subtree
+     */
     public Node rotateRight(Node current) {
-        Node y = current.getLeft(); // left child
-        Node parent = parent(current);
-        if (findHeight(current.getLeft().getLeft()) >= findHeight(current.getLeft().getRight())) {
-            Node rightChildOfY = y.getRight();
-            y.setRight(current);
-            current.setLeft(rightChildOfY);
-            if (parent.getData().compareTo(y.getData()) >= 0) {
-                parent.setLeft(y);
-            } else {
-                parent.setRight(y);
-            }
-            setBalance(current);
-            return y;
-        } else {
-            Node x = y.getRight();
-            Node leftChildOfX = x.getLeft();
-            Node rightChildOfX = x.getRight();
-            x.setLeft(y);
-            x.setRight(current);
-            y.setRight(leftChildOfX);
-            current.setLeft(rightChildOfX);
-            if (parent.getData().compareTo(x.getData()) >= 0) {
-                parent.setLeft(x);
-            } else {
-                parent.setRight(x);
-            }
-            setBalance(current);
-            setBalance(x);
-            return x;
-        }
-    }
-
-    private Node parent(Node child) {
-        if (root != null) {
-            Node current = root;
-            while (true) {
-                if (current.getLeft() != null && current.getLeft().getData().compareTo(child.getData()) == 0) {
-                    return current;
-                } else if (current.getRight() != null && current.getRight().getData().compareTo(child.getData()) == 0) {
-                    return current;
-                } else if (current.getLeft() != null && current.getData().compareTo(child.getData()) > 0) {
-                    current = current.getLeft();
-                } else if (current.getRight() != null) current = current.getRight();
-                else { return null; }
-            }
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countRotation();
         }
-        return null;
+        Node y = current.getLeft();
+        current.setLeft(y.getRight());
+        y.setRight(current);
+        update(current);
+        update(y);
+        return y;
+    }
+
+    /**
+     * Starts counting the operations, comparisons and rotations of the tree and recording the latencies
+     * of its inserts, deletes and finds
+     *
+     * @return the metrics of the tree, the same on every call
+     * @throws IllegalStateException if the JVM was started without the {@value TreeMetrics#PROPERTY} property
+     */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of the tree, null until they are enabled
+     */
+    public TreeMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countComparison();
+        }
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
     }
 
     public int getSize() {
@@ -255,17 +496,547 @@ public class AVLTree<E extends Comparable<E>> {
     }
 
 
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getLeft() != null) {
+            current = current.getLeft();
+        }
+        return current.getData();
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getRight() != null) {
+            current = current.getRight();
+        }
+        return current.getData();
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the least element greater than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E ceiling(E data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the least element strictly greater than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E higher(E data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the greatest element less than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E floor(E data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the greatest element strictly less than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E lower(E data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Returns a live view of the elements from fromElement, inclusive, to toElement, exclusive
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements between fromElement and toElement
+     */
+    public SortedSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the elements less than toElement
+     */
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements less than, or equal to if inclusive, toElement
+     */
+    public SortedSet<E> headSet(E toElement, boolean inclusive) {
+        if (toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a live view of the elements greater than or equal to fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns a live view of the elements greater than, or equal to if inclusive, fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Finds the element nearest to the data in one direction with one descent
+     *
+     * @param above     - true to look for elements greater than the data, false for less
+     * @param inclusive - true if an element equal to the data is a match
+     */
+    private E nearest(E data, boolean above, boolean inclusive) {
+        Node current = root;
+        Node best = null;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0 && inclusive) {
+                return current.getData();
+            }
+            if (above ? cmp > 0 : cmp < 0) {
+                best = current;
+                current = above ? current.getLeft() : current.getRight();
+            } else {
+                current = above ? current.getRight() : current.getLeft();
+            }
+        }
+        return best == null ? null : best.getData();
+    }
+
+    /**
+     * Counts the elements strictly less than the data in O(log n)
+     *
+     * @return the number of elements less than the data
+     */
+    public int rank(E data) {
+        return countBelow(data, false);
+    }
+
+    /**
+     * Finds the k-th smallest element in O(log n)
+     *
+     * @param k - zero-based position of the element in ascending order
+     * @return the found element
+     * @throws IndexOutOfBoundsException if k is negative or not less than the size of the tree
+     */
+    public E select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + size);
+        }
+        Node current = root;
+        while (true) {
+            int left = sizeOf(current.getLeft());
+            if (k < left) {
+                current = current.getLeft();
+            } else if (k > left) {
+                k -= left + 1;
+                current = current.getRight();
+            } else {
+                return current.getData();
+            }
+        }
+    }
+
+    /**
+     * Counts the elements between from and to, both inclusive, in O(log n)
+     */
+    public int countInRange(E from, E to) {
+        return countInRange(from, true, to, true);
+    }
+
+    /**
+     * Counts the elements in the range in O(log n)
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        int below = from == null ? 0 : countBelow(from, !fromInclusive);
+        int upTo = to == null ? size : countBelow(to, toInclusive);
+        return Math.max(0, upTo - below);
+    }
+
+    /**
+     * Counts the elements less than, or equal to if inclusive, the data with one descent
+     */
+    private int countBelow(E data, boolean inclusive) {
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+                count += sizeOf(current.getLeft()) + 1;
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return count;
+    }
+
+    private int sizeOf(Node node) {
+        return node == null ? 0 : node.getSize();
+    }
+
     public int height() {
-        return findHeight(root) - 1;
+        return height(root) - 1;
+    }
+
+    /**
+     * Takes the statistics of the shape of the tree in O(1) from the values cached in the root
+     */
+    public TreeStats stats() {
+        return new TreeStats(size, height(), pathLengthOf(root), -1);
+    }
+
+    /**
+     * Checks that every cached height, subtree size, path length and balance factor matches the actual
+     * subtrees and that every balance factor is within [-1, 1]. Takes O(n) time
+     *
+     * @throws IllegalStateException if an invariant is broken
+     */
+    public void checkInvariants() {
+        int count = checkInvariants(root, null, null);
+        if (count != size) {
+            throw new IllegalStateException("size is " + size + " but the tree has " + count + " nodes");
+        }
+    }
+
+    private int checkInvariants(Node current, E low, E high) {
+        if (current == null) return 0;
+        E data = current.getData();
+        if ((low != null && compare(low, data) >= 0) || (high != null && compare(high, data) <= 0)) {
+            throw new IllegalStateException("node " + data + " is out of order");
+        }
+        int count = 1 + checkInvariants(current.getLeft(), low, data)
+                + checkInvariants(current.getRight(), data, high);
+        int left = height(current.getLeft());
+        int right = height(current.getRight());
+        if (current.getHeight() != 1 + Math.max(left, right)) {
+            throw new IllegalStateException("node " + data + " caches height " + current.getHeight()
+                    + " instead of " + (1 + Math.max(left, right)));
+        }
+        if (current.getSize() != count) {
+            throw new IllegalStateException("node " + data + " caches size " + current.getSize()
+                    + " instead of " + count);
+        }
+        long pathLength = pathLengthOf(current.getLeft()) + sizeOf(current.getLeft())
+                + pathLengthOf(current.getRight()) + sizeOf(current.getRight());
+        if (current.getPathLength() != pathLength) {
+            throw new IllegalStateException("node " + data + " caches path length " + current.getPathLength()
+                    + " instead of " + pathLength);
+        }
+        if (current.getBalance() != right - left || Math.abs(right - left) > 1) {
+            throw new IllegalStateException("node " + data + " has balance " + current.getBalance()
+                    + ", subtree heights are " + left + " and " + right);
+        }
+        return count;
+    }
+
+    /**
+     * Builds a subtree from the middle of the range down, the halves of large ranges in parallel. The
+     * halves differ in size by at most one, so their heights differ by at most one too
+     */
+    private Node build(List<E> sorted, int low, int high) {
+        if (low > high) return null;
+        int middle = (low + high) >>> 1;
+        Node node = new Node(sorted.get(middle));
+        if (high - low + 1 >= PARALLEL_GRAIN) {
+            ForkJoinTask<Node> task = ForkJoinTask.adapt(() -> build(sorted, low, middle - 1)).fork();
+            node.setRight(build(sorted, middle + 1, high));
+            node.setLeft(task.join());
+        } else {
+            node.setLeft(build(sorted, low, middle - 1));
+            node.setRight(build(sorted, middle + 1, high));
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * Merges two subtrees by splitting the first one at the root of the second one
+     *
+     * @return the root of the merged subtree
+     */
+    private Node union(Node first, Node second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        Split split = split(first, second.getData());
+        Node less = second.getLeft();
+        Node greater = second.getRight();
+        Node left;
+        Node right;
+        if (sizeOf(first) + sizeOf(second) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Node> task = ForkJoinTask.adapt(() -> union(split.left, less)).fork();
+            right = union(split.right, greater);
+            left = task.join();
+        } else {
+            left = union(split.left, less);
+            right = union(split.right, greater);
+        }
+        // keep the node of the first subtree
+        return join(left, split.found != null ? split.found : second, right);
+    }
+
+    /**
+     * Intersects two subtrees by splitting the first one at the root of the second one
+     *
+     * @return the root of the intersected subtree
+     */
+    private Node intersection(Node first, Node second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        Split split = split(first, second.getData());
+        Node less = second.getLeft();
+        Node greater = second.getRight();
+        Node left;
+        Node right;
+        if (sizeOf(first) + sizeOf(second) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Node> task = ForkJoinTask.adapt(() -> intersection(split.left, less)).fork();
+            right = intersection(split.right, greater);
+            left = task.join();
+        } else {
+            left = intersection(split.left, less);
+            right = intersection(split.right, greater);
+        }
+        return split.found != null ? join(left, split.found, right) : join(left, right);
+    }
+
+    /**
+     * Takes the second subtree away from the first one by splitting the first one at the root of the
+     * second one
+     *
+     * @return the root of the remaining subtree
+     */
+    private Node difference(Node first, Node second) {
+        if (first == null || second == null) {
+            return first;
+        }
+        Split split = split(first, second.getData());
+        Node less = second.getLeft();
+        Node greater = second.getRight();
+        Node left;
+        Node right;
+        if (sizeOf(first) + sizeOf(second) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Node> task = ForkJoinTask.adapt(() -> difference(split.left, less)).fork();
+            right = difference(split.right, greater);
+            left = task.join();
+        } else {
+            left = difference(split.left, less);
+            right = difference(split.right, greater);
+        }
+        return join(left, right);
+    }
+
+    /**
+     * Splits the subtree into the nodes less than the data, the node equal to it and the nodes greater
+     * than it. The nodes on the search path are joined back into the two parts
+     */
+    private Split split(Node current, E data) {
+        if (current == null) {
+            return new Split(null, null, null);
+        }
+        Node left = current.getLeft();
+        Node right = current.getRight();
+        int cmp = compare(current.getData(), data);
+        if (cmp == 0) {
+            return new Split(left, current, right);
+        }
+        if (cmp > 0) {
+            Split split = split(left, data);
+            split.right = join(split.right, current, right);
+            return split;
+        }
+        Split split = split(right, data);
+        split.left = join(left, current, split.left);
+        return split;
+    }
+
+    /**
+     * Joins two subtrees with the middle node between them, all elements of the left subtree being less
+     * than the middle and all of the right one greater. The middle node goes down the spine of the
+     * higher subtree to where the heights match, and every node above it is rebalanced, which costs
+     * O(difference of the heights)
+     *
+     * @return the root of the joined subtree
+     */
+    private Node join(Node left, Node middle, Node right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            left.setRight(join(left.getRight(), middle, right));
+            return balance(left);
+        }
+        if (rightHeight > leftHeight + 1) {
+            right.setLeft(join(left, middle, right.getLeft()));
+            return balance(right);
+        }
+        middle.setLeft(left);
+        middle.setRight(right);
+        update(middle);
+        return middle;
+    }
+
+    /**
+     * Joins two subtrees, all elements of the left subtree being less than those of the right one, by
+     * moving the maximum of the left subtree between them
+     *
+     * @return the root of the joined subtree
+     */
+    private Node join(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        Node max = left;
+        while (max.getRight() != null) {
+            max = max.getRight();
+        }
+        return join(deleteMax(left), max, right);
+    }
+
+    /**
+     * Makes the result of a set operation the whole tree
+     */
+    private void setRoot(Node node) {
+        root = node;
+        size = sizeOf(root);
+    }
+
+    /**
+     * Takes all nodes out of the tree, leaving it empty
+     *
+     * @return the former root of the tree
+     */
+    private Node detach() {
+        Node node = root;
+        root = null;
+        size = 0;
+        return node;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.getHeight();
     }
 
-    private int findHeight(Node node) {
-        if (node == null) return 0;
-        return 1 + Math.max(findHeight(node.getLeft()), findHeight(node.getRight()));
+    private long pathLengthOf(Node node) {
+        return node == null ? 0 : node.getPathLength();
     }
 
-    private void setBalance(Node current) {
-        current.setBalance(findHeight(current.getRight()) - findHeight(current.getLeft()));
+    /**
+     * Recomputes the cached height, balance, subtree size and path length of the node from its children
+     */
+    private void update(Node current) {
+        int left = height(current.getLeft());
+        int right = height(current.getRight());
+        current.setHeight(1 + Math.max(left, right));
+        current.setBalance(right - left);
+        current.setSize(1 + sizeOf(current.getLeft()) + sizeOf(current.getRight()));
+        // every node of the subtrees is one level deeper below this node than below its child
+        current.setPathLength(pathLengthOf(current.getLeft()) + sizeOf(current.getLeft())
+                + pathLengthOf(current.getRight()) + sizeOf(current.getRight()));
+    }
+
+    /**
+     * Returns a lazy in-order iterator. The result is undefined if the tree is modified during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED}, {@code DISTINCT}, {@code SIZED} and
+     * {@code SUBSIZED}. It splits at subtree boundaries into halves of about the same size
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a sequential stream of the elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements, split at subtree boundaries into halves of about the
+     * same size
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the elements in the range, positioned with one descent
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
     }
 
     public List<E> getLine(int line) {
@@ -293,7 +1064,7 @@ public class AVLTree<E extends Comparable<E>> {
             }
             getLine(l, currentLine + 1, current.getRight(), list);
         } else if (currentLine == l) {
-            list.add((E) current.getData());
+            list.add(current.getData());
         }
         return list;
     }
@@ -322,15 +1093,85 @@ public class AVLTree<E extends Comparable<E>> {
         }
     }
 
-    protected class Node<E extends Comparable<E>> {
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node> {
+
+        Traversal() {
+            super(root, size, height(root));
+        }
+
+        Traversal(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            super(root, size, height(root), from, fromInclusive, to, toInclusive);
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        E data(Node node) {
+            return node.getData();
+        }
+
+        @Override
+        long size(Node node) {
+            return node.getSize();
+        }
+
+        @Override
+        Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    /**
+     * Parts of a subtree split at an element
+     */
+    private class Split {
+        Node left;
+        // node equal to the element, null if there is none
+        Node found;
+        Node right;
+
+        Split(Node left, Node found, Node right) {
+            this.left = left;
+            this.found = found;
+            this.right = right;
+        }
+    }
+
+    protected class Node {
         E data;
         Node left;
         Node right;
         int balance;
+        int height;
+        int size;
+        // sum of the depths of the nodes of the subtree below this node
+        long pathLength;
 
         Node(E data) {
             this.data = data;
             balance = 0;
+            height = 1;
+            size = 1;
             left = null;
             right = null;
         }
@@ -339,7 +1180,7 @@ public class AVLTree<E extends Comparable<E>> {
             this.data = data;
         }
 
-        Node setLeft(Node<E> leftNode) {
+        Node setLeft(Node leftNode) {
             if (left != null) {
                 this.left = leftNode;
                 return null;
@@ -350,7 +1191,7 @@ public class AVLTree<E extends Comparable<E>> {
             }
         }
 
-        Node setRight(Node<E> rightNode) {
+        Node setRight(Node rightNode) {
             if (left != null) {
                 this.right = rightNode;
                 return null;
@@ -365,6 +1206,18 @@ public class AVLTree<E extends Comparable<E>> {
             this.balance = balance;
         }
 
+        void setHeight(int height) {
+            this.height = height;
+        }
+
+        void setSize(int size) {
+            this.size = size;
+        }
+
+        void setPathLength(long pathLength) {
+            this.pathLength = pathLength;
+        }
+
         E getData() {
             return this.data;
         }
@@ -380,6 +1233,18 @@ public class AVLTree<E extends Comparable<E>> {
         int getBalance() {
             return this.balance;
         }
+
+        int getHeight() {
+            return this.height;
+        }
+
+        int getSize() {
+            return this.size;
+        }
+
+        long getPathLength() {
+            return this.pathLength;
+        }
     }
 }
 
@@ -0,0 +1,371 @@
+package com.ui.dsa.tree;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Red black tree whose nodes live in parallel arrays
+ * <p>
+ * A node is an index into the {@code keys}, {@code left}, {@code right} and {@code parent} arrays,
+ * and its color is one bit of the {@code red} bitset, so the tree is a handful of large arrays instead
+ * of one object per element. Index 0 stands for a missing node. Slots of deleted nodes are chained
+ * into a free list through {@code left} and reused by later inserts.
+ *
+ * @param <E> - data type of nodes
+ */
+public class ArrayRBTree<E extends Comparable<E>> {
+
+    private static final int NIL = 0;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private Object[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private long[] red;
+
+    private int root;
+    private int size;
+    // first never used slot
+    private int next;
+    // head of the chain of deleted slots
+    private int free;
+
+    public ArrayRBTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity - number of nodes to allocate room for up front
+     */
+    public ArrayRBTree(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        int length = capacity + 1;
+        keys = new Object[length];
+        left = new int[length];
+        right = new int[length];
+        parent = new int[length];
+        red = new long[(length + 63) >>> 6];
+        root = NIL;
+        size = 0;
+        next = 1;
+        free = NIL;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(E data) {
+        if (root == NIL) {
+            root = allocate(data);
+            setRed(root, false);
+            size++;
+            return;
+        }
+        int current = root;
+        int cmp;
+        while (true) {
+            cmp = key(current).compareTo(data);
+            if (cmp == 0) {
+                // the element already exists
+                return;
+            }
+            int child = cmp > 0 ? left[current] : right[current];
+            if (child == NIL) {
+                break;
+            }
+            current = child;
+        }
+        // allocate may grow the arrays, so it comes before any array is written
+        int node = allocate(data);
+        parent[node] = current;
+        if (cmp > 0) {
+            left[current] = node;
+        } else {
+            right[current] = node;
+        }
+        size++;
+        fixAfterInsert(node);
+    }
+
+    public boolean delete(E data) {
+        int current = findNode(data);
+        if (current == NIL) {
+            return false;
+        }
+        // if the node has 2 children, move the predecessor data into it and remove the predecessor
+        if (left[current] != NIL && right[current] != NIL) {
+            int pred = left[current];
+            while (right[pred] != NIL) {
+                pred = right[pred];
+            }
+            keys[current] = keys[pred];
+            current = pred;
+        }
+        int child = left[current] != NIL ? left[current] : right[current];
+        if (child != NIL) {
+            replace(current, child);
+            setRed(child, false);
+        } else if (parent[current] == NIL) {
+            root = NIL;
+        } else {
+            if (!isRed(current)) {
+                fixAfterDelete(current);
+            }
+            replace(current, NIL);
+        }
+        release(current);
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the element equal to the data
+     *
+     * @return the element stored in the tree, or null if there is none
+     */
+    public E find(E data) {
+        int node = findNode(data);
+        return node == NIL ? null : key(node);
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        int current = root;
+        while (left[current] != NIL) {
+            current = left[current];
+        }
+        return key(current);
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        int current = root;
+        while (right[current] != NIL) {
+            current = right[current];
+        }
+        return key(current);
+    }
+
+    public int height() {
+        return findHeight(root) - 1;
+    }
+
+    /**
+     * Shrinks the arrays to the highest slot ever used. Deleted slots stay on the free list
+     */
+    public void trimToSize() {
+        resize(next);
+    }
+
+    private int findNode(E data) {
+        int current = root;
+        while (current != NIL) {
+            int cmp = key(current).compareTo(data);
+            if (cmp > 0) {
+                current = left[current];
+            } else if (cmp < 0) {
+                current = right[current];
+            } else {
+                return current;
+            }
+        }
+        return NIL;
+    }
+
+    private int findHeight(int node) {
+        if (node == NIL) {
+            return 0;
+        }
+        return 1 + Math.max(findHeight(left[node]), findHeight(right[node]));
+    }
+
+    private void fixAfterInsert(int current) {
+        while (isRed(parent[current])) {
+            int p = parent[current];
+            int gp = parent[p];
+            int uncle = p == left[gp] ? right[gp] : left[gp];
+            if (isRed(uncle)) {
+                setRed(p, false);
+                setRed(uncle, false);
+                setRed(gp, true);
+                current = gp;
+            } else {
+                if (current == right[p] && p == left[gp]) {
+                    rotateLeft(p);
+                    current = p;
+                } else if (current == left[p] && p == right[gp]) {
+                    rotateRight(p);
+                    current = p;
+                }
+                p = parent[current];
+                setRed(p, false);
+                setRed(gp, true);
+                if (current == left[p]) {
+                    rotateRight(gp);
+                } else {
+                    rotateLeft(gp);
+                }
+            }
+        }
+        setRed(root, false);
+    }
+
+    private void fixAfterDelete(int current) {
+        while (current != root && !isRed(current)) {
+            int p = parent[current];
+            boolean isLeft = current == left[p];
+            int sibling = isLeft ? right[p] : left[p];
+            if (isRed(sibling)) {
+                setRed(sibling, false);
+                setRed(p, true);
+                if (isLeft) {
+                    rotateLeft(p);
+                    sibling = right[p];
+                } else {
+                    rotateRight(p);
+                    sibling = left[p];
+                }
+            }
+            if (!isRed(left[sibling]) && !isRed(right[sibling])) {
+                setRed(sibling, true);
+                current = p;
+            } else {
+                if (isLeft && !isRed(right[sibling])) {
+                    setRed(left[sibling], false);
+                    setRed(sibling, true);
+                    rotateRight(sibling);
+                    sibling = right[p];
+                } else if (!isLeft && !isRed(left[sibling])) {
+                    setRed(right[sibling], false);
+                    setRed(sibling, true);
+                    rotateLeft(sibling);
+                    sibling = left[p];
+                }
+                setRed(sibling, isRed(p));
+                setRed(p, false);
+                if (isLeft) {
+                    setRed(right[sibling], false);
+                    rotateLeft(p);
+                } else {
+                    setRed(left[sibling], false);
+                    rotateRight(p);
+                }
+                current = root;
+            }
+        }
+        setRed(current, false);
+    }
+
+    private void rotateLeft(int current) {
+        int r = right[current];
+        right[current] = left[r];
+        if (left[r] != NIL) {
+            parent[left[r]] = current;
+        }
+        replace(current, r);
+        left[r] = current;
+        parent[current] = r;
+    }
+
+    private void rotateRight(int current) {
+        int l = left[current];
+        left[current] = right[l];
+        if (right[l] != NIL) {
+            parent[right[l]] = current;
+        }
+        replace(current, l);
+        right[l] = current;
+        parent[current] = l;
+    }
+
+    private void replace(int current, int child) {
+        int p = parent[current];
+        if (p == NIL) {
+            root = child;
+        } else if (left[p] == current) {
+            left[p] = child;
+        } else {
+            right[p] = child;
+        }
+        if (child != NIL) {
+            parent[child] = p;
+        }
+    }
+
+    private int allocate(E data) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left[node];
+        } else {
+            if (next == keys.length) {
+                resize(Math.max(keys.length + (keys.length >> 1), DEFAULT_CAPACITY));
+            }
+            node = next++;
+        }
+        keys[node] = data;
+        left[node] = NIL;
+        right[node] = NIL;
+        parent[node] = NIL;
+        setRed(node, true);
+        return node;
+    }
+
+    private void release(int node) {
+        keys[node] = null;
+        right[node] = NIL;
+        parent[node] = NIL;
+        setRed(node, false);
+        left[node] = free;
+        free = node;
+    }
+
+    private void resize(int length) {
+        keys = Arrays.copyOf(keys, length);
+        left = Arrays.copyOf(left, length);
+        right = Arrays.copyOf(right, length);
+        parent = Arrays.copyOf(parent, length);
+        red = Arrays.copyOf(red, (length + 63) >>> 6);
+    }
+
+    private boolean isRed(int node) {
+        return (red[node >>> 6] & (1L << node)) != 0;
+    }
+
+    private void setRed(int node, boolean isRed) {
+        if (isRed) {
+            red[node >>> 6] |= 1L << node;
+        } else {
+            red[node >>> 6] &= ~(1L << node);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E key(int node) {
+        return (E) keys[node];
+    }
+}
@@ -0,0 +1,774 @@
+package com.ui.dsa.tree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * B+ tree
+ * <p>
+ * Every node holds a sorted array of up to {@code order - 1} keys, so a lookup binary searches a few
+ * neighbouring keys per level, and the tree is about log2(order) times lower than a binary tree. The
+ * elements are only stored in the leaves. The keys of an inner node separate its children: child
+ * {@code i} holds the elements from key {@code i - 1}, inclusive, to key {@code i}, exclusive. The
+ * leaves are linked to both neighbours, so ordered traversal and range scans walk the leaves without
+ * going back up the tree.
+ * <p>
+ * Every node but the root holds at least {@code (order - 1) / 2} keys. A node that overflows on
+ * insert is split in two, and a node that falls below the minimum on delete borrows a key from a
+ * neighbour or is merged with it.
+ *
+ * @param <E> - data type of nodes
+ */
+public class BPlusTree<E extends Comparable<E>> implements Iterable<E>, NavigableTree<E> {
+
+    public static final int DEFAULT_ORDER = 64;
+
+    // maximum number of children of an inner node
+    private final int order;
+    private final int maxKeys;
+    private final int minKeys;
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
+    private Node root;
+    private int size;
+    // levels below the root, 0 if the root is a leaf
+    private int height;
+    // key moved up into the parent by the last split
+    private Object separator;
+
+    public BPlusTree() {
+        this(DEFAULT_ORDER, null);
+    }
+
+    /**
+     * @param order - maximum number of children of an inner node, one more than the keys of a node
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public BPlusTree(int order) {
+        this(order, null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public BPlusTree(Comparator<? super E> comparator) {
+        this(DEFAULT_ORDER, comparator);
+    }
+
+    /**
+     * @param order      - maximum number of children of an inner node, one more than the keys of a node
+     * @param comparator - ordering of the elements, null for their natural ordering
+     * @throws IllegalArgumentException if the order is less than 3
+     */
+    public BPlusTree(int order, Comparator<? super E> comparator) {
+        if (order < 3) {
+            throw new IllegalArgumentException("Illegal order: " + order);
+        }
+        this.order = order;
+        this.maxKeys = order - 1;
+        this.minKeys = maxKeys / 2;
+        this.comparator = comparator;
+        this.root = new Leaf(order);
+        this.size = 0;
+        this.height = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int order() {
+        return order;
+    }
+
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * @return the number of levels below the root
+     */
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Inserts the data with one descent from the root, splitting full nodes on the way back up
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        int oldSize = size;
+        Node sibling = insert(root, height, data);
+        if (sibling != null) {
+            Inner newRoot = new Inner(order);
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.count = 1;
+            root = newRoot;
+            height++;
+        }
+        separator = null;
+        return size != oldSize;
+    }
+
+    /**
+     * Deletes the data with one descent from the root, refilling nodes on the way back up
+     *
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        if (!delete(root, height, data)) {
+            return false;
+        }
+        if (height > 0 && root.count == 0) {
+            // the root lost its last key in a merge, its only child takes its place
+            root = ((Inner) root).children[0];
+            height--;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the element equal to the data
+     *
+     * @return the element stored in the tree, or null if there is none
+     */
+    public E find(E data) {
+        Leaf leaf = leafOf(data);
+        int index = search(leaf, data);
+        return index >= 0 ? key(leaf, index) : null;
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return key(firstLeaf(), 0);
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            node = ((Inner) node).children[node.count];
+        }
+        return key(node, node.count - 1);
+    }
+
+    /**
+     * Finds the least element greater than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E ceiling(E data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the least element strictly greater than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E higher(E data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the greatest element less than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E floor(E data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the greatest element strictly less than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E lower(E data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Returns a live view of the elements from fromElement, inclusive, to toElement, exclusive
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements between fromElement and toElement
+     */
+    public SortedSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the elements less than toElement
+     */
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements less than, or equal to if inclusive, toElement
+     */
+    public SortedSet<E> headSet(E toElement, boolean inclusive) {
+        if (toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a live view of the elements greater than or equal to fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns a live view of the elements greater than, or equal to if inclusive, fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Counts the elements in the range by walking the leaves, in O(log n + k / order) for k elements
+     * in the range
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        if (from == null && to == null) {
+            return size;
+        }
+        LeafScan scan = new LeafScan(from, fromInclusive, null, false);
+        int count = 0;
+        for (Leaf leaf = scan.leaf; leaf != null; leaf = leaf.next) {
+            int start = leaf == scan.leaf ? scan.index : 0;
+            if (to != null && leaf.count > 0 && compare(key(leaf, leaf.count - 1), to) >= (toInclusive ? 1 : 0)) {
+                // the range ends in this leaf
+                int found = search(leaf, to);
+                int end = found >= 0 ? (toInclusive ? found + 1 : found) : -found - 1;
+                return count + Math.max(0, end - start);
+            }
+            count += leaf.count - start;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the linked leaves. The result is undefined if the tree is
+     * modified during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new LeafScan(null, false, null, false);
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code DISTINCT}, {@code SIZED} and, for the natural
+     * ordering, {@code SORTED}
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(iterator(), size, characteristics());
+    }
+
+    /**
+     * Returns a sequential stream of the elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the elements in the range, positioned with one descent
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new LeafScan(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return Spliterators.spliteratorUnknownSize(iterator(from, fromInclusive, to, toInclusive), characteristics());
+    }
+
+    private int characteristics() {
+        // a spliterator over an iterator can only report the natural ordering as SORTED
+        return Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | (comparator == null ? Spliterator.SORTED : 0);
+    }
+
+    /**
+     * Checks that the keys of every node are sorted and within the bounds set by the parent, that every
+     * node but the root holds between the minimum and the maximum number of keys, that all leaves are
+     * at the same depth and that the leaf links follow the key order. Takes O(n) time
+     *
+     * @throws IllegalStateException if an invariant is broken
+     */
+    public void checkInvariants() {
+        Leaf[] previous = new Leaf[1];
+        int count = checkInvariants(root, height, null, null, previous);
+        if (count != size) {
+            throw new IllegalStateException("size is " + size + " but the tree has " + count + " elements");
+        }
+        if (previous[0] != null && previous[0].next != null) {
+            throw new IllegalStateException("last leaf links to another leaf");
+        }
+    }
+
+    private int checkInvariants(Node node, int level, E low, E high, Leaf[] previous) {
+        if (node != root && (node.count < minKeys || node.count > maxKeys)) {
+            throw new IllegalStateException("node holds " + node.count + " keys, outside [" + minKeys + ", " + maxKeys + "]");
+        }
+        for (int i = 0; i < node.count; i++) {
+            E key = key(node, i);
+            if ((i > 0 && compare(key(node, i - 1), key) >= 0) || (low != null && compare(low, key) > 0)
+                    || (high != null && compare(high, key) <= 0)) {
+                throw new IllegalStateException("key " + key + " is out of order");
+            }
+        }
+        if (level == 0) {
+            Leaf leaf = (Leaf) node;
+            if (leaf.prev != previous[0] || (previous[0] != null ? previous[0].next : firstLeaf()) != leaf) {
+                throw new IllegalStateException("leaf links are broken at " + (leaf.count > 0 ? leaf.keys[0] : "the empty root"));
+            }
+            previous[0] = leaf;
+            return leaf.count;
+        }
+        Inner inner = (Inner) node;
+        int count = 0;
+        for (int i = 0; i <= inner.count; i++) {
+            count += checkInvariants(inner.children[i], level - 1, i == 0 ? low : key(inner, i - 1),
+                    i == inner.count ? high : key(inner, i), previous);
+        }
+        return count;
+    }
+
+    /**
+     * Inserts the data into the subtree
+     *
+     * @param level - levels below the node
+     * @return the new right sibling if the node was split, with its separator in {@link #separator}
+     */
+    private Node insert(Node node, int level, E data) {
+        if (level == 0) {
+            Leaf leaf = (Leaf) node;
+            int found = search(leaf, data);
+            if (found >= 0) {
+                // the element already exists
+                return null;
+            }
+            insertAt(leaf.keys, leaf.count++, -found - 1, data);
+            size++;
+            return leaf.count > maxKeys ? split(leaf) : null;
+        }
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, data);
+        Node sibling = insert(inner.children[index], level - 1, data);
+        if (sibling == null) {
+            return null;
+        }
+        insertAt(inner.keys, inner.count, index, separator);
+        insertAt(inner.children, inner.count + 1, index + 1, sibling);
+        inner.count++;
+        return inner.count > maxKeys ? split(inner) : null;
+    }
+
+    /**
+     * Moves the upper half of an overflowing leaf into a new right sibling
+     */
+    private Leaf split(Leaf leaf) {
+        Leaf right = new Leaf(order);
+        int keep = leaf.count / 2;
+        right.count = leaf.count - keep;
+        System.arraycopy(leaf.keys, keep, right.keys, 0, right.count);
+        Arrays.fill(leaf.keys, keep, leaf.count, null);
+        leaf.count = keep;
+        right.next = leaf.next;
+        right.prev = leaf;
+        if (leaf.next != null) {
+            leaf.next.prev = right;
+        }
+        leaf.next = right;
+        separator = right.keys[0];
+        return right;
+    }
+
+    /**
+     * Moves the keys and children above the middle key of an overflowing inner node into a new right
+     * sibling, the middle key goes up into the parent
+     */
+    private Inner split(Inner inner) {
+        Inner right = new Inner(order);
+        int middle = inner.count / 2;
+        right.count = inner.count - middle - 1;
+        System.arraycopy(inner.keys, middle + 1, right.keys, 0, right.count);
+        System.arraycopy(inner.children, middle + 1, right.children, 0, right.count + 1);
+        separator = inner.keys[middle];
+        Arrays.fill(inner.keys, middle, inner.count, null);
+        Arrays.fill(inner.children, middle + 1, inner.count + 1, null);
+        inner.count = middle;
+        return right;
+    }
+
+    /**
+     * Deletes the data from the subtree
+     *
+     * @param level - levels below the node
+     * @return true if the element was in the subtree
+     */
+    private boolean delete(Node node, int level, E data) {
+        if (level == 0) {
+            int found = search(node, data);
+            if (found < 0) {
+                return false;
+            }
+            removeAt(node.keys, node.count--, found);
+            size--;
+            return true;
+        }
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, data);
+        if (!delete(inner.children[index], level - 1, data)) {
+            return false;
+        }
+        if (inner.children[index].count < minKeys) {
+            refill(inner, index, level == 1);
+        }
+        return true;
+    }
+
+    /**
+     * Brings a child that fell below the minimum back to it by borrowing a key from a neighbour that
+     * can spare one, or else by merging it with a neighbour
+     *
+     * @param leaves - true if the children are leaves
+     */
+    private void refill(Inner parent, int index, boolean leaves) {
+        Node child = parent.children[index];
+        Node left = index > 0 ? parent.children[index - 1] : null;
+        Node right = index < parent.count ? parent.children[index + 1] : null;
+        if (left != null && left.count > minKeys) {
+            if (leaves) {
+                insertAt(child.keys, child.count++, 0, left.keys[--left.count]);
+                left.keys[left.count] = null;
+                parent.keys[index - 1] = child.keys[0];
+            } else {
+                Inner inner = (Inner) child;
+                Inner from = (Inner) left;
+                insertAt(inner.keys, inner.count, 0, parent.keys[index - 1]);
+                insertAt(inner.children, inner.count + 1, 0, from.children[from.count]);
+                inner.count++;
+                parent.keys[index - 1] = from.keys[from.count - 1];
+                from.keys[from.count - 1] = null;
+                from.children[from.count] = null;
+                from.count--;
+            }
+        } else if (right != null && right.count > minKeys) {
+            if (leaves) {
+                child.keys[child.count++] = right.keys[0];
+                removeAt(right.keys, right.count--, 0);
+                parent.keys[index] = right.keys[0];
+            } else {
+                Inner inner = (Inner) child;
+                Inner from = (Inner) right;
+                inner.keys[inner.count] = parent.keys[index];
+                inner.children[inner.count + 1] = from.children[0];
+                inner.count++;
+                parent.keys[index] = from.keys[0];
+                removeAt(from.keys, from.count, 0);
+                removeAt(from.children, from.count + 1, 0);
+                from.count--;
+            }
+        } else if (left != null) {
+            merge(parent, index - 1, leaves);
+        } else {
+            merge(parent, index, leaves);
+        }
+    }
+
+    /**
+     * Merges the child at the index with its right neighbour and removes their separator from the parent
+     *
+     * @param leaves - true if the children are leaves
+     */
+    private void merge(Inner parent, int index, boolean leaves) {
+        Node left = parent.children[index];
+        Node right = parent.children[index + 1];
+        if (leaves) {
+            Leaf leaf = (Leaf) left;
+            Leaf next = (Leaf) right;
+            System.arraycopy(next.keys, 0, leaf.keys, leaf.count, next.count);
+            leaf.count += next.count;
+            leaf.next = next.next;
+            if (next.next != null) {
+                next.next.prev = leaf;
+            }
+        } else {
+            Inner inner = (Inner) left;
+            Inner next = (Inner) right;
+            inner.keys[inner.count] = parent.keys[index];
+            System.arraycopy(next.keys, 0, inner.keys, inner.count + 1, next.count);
+            System.arraycopy(next.children, 0, inner.children, inner.count + 1, next.count + 1);
+            inner.count += next.count + 1;
+        }
+        removeAt(parent.keys, parent.count, index);
+        removeAt(parent.children, parent.count + 1, index + 1);
+        parent.count--;
+    }
+
+    /**
+     * Binary searches the keys of the node with one comparison per probe
+     *
+     * @return the index of the key equal to the data, or (-(insertion point) - 1) if there is none
+     */
+    private int search(Node node, E data) {
+        int low = 0;
+        int high = node.count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = compare(key(node, middle), data);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
+    /**
+     * Finds the child whose range holds the data, the separators equal to the data lead to the right
+     */
+    private int childIndex(Inner inner, E data) {
+        int found = search(inner, data);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    /**
+     * Descends to the leaf whose range holds the data
+     */
+    private Leaf leafOf(E data) {
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, data)];
+        }
+        return (Leaf) node;
+    }
+
+    private Leaf firstLeaf() {
+        Node node = root;
+        for (int level = height; level > 0; level--) {
+            node = ((Inner) node).children[0];
+        }
+        return (Leaf) node;
+    }
+
+    /**
+     * Finds the element nearest to the data in one direction with one descent, stepping over to the
+     * neighbouring leaf if the leaf of the data has none
+     *
+     * @param above     - true to look for elements greater than the data, false for less
+     * @param inclusive - true if an element equal to the data is a match
+     */
+    private E nearest(E data, boolean above, boolean inclusive) {
+        Leaf leaf = leafOf(data);
+        int found = search(leaf, data);
+        if (above) {
+            int index = found >= 0 ? (inclusive ? found : found + 1) : -found - 1;
+            if (index < leaf.count) {
+                return key(leaf, index);
+            }
+            return leaf.next == null ? null : key(leaf.next, 0);
+        }
+        int index = found >= 0 ? (inclusive ? found : found - 1) : -found - 2;
+        if (index >= 0) {
+            return key(leaf, index);
+        }
+        return leaf.prev == null ? null : key(leaf.prev, leaf.prev.count - 1);
+    }
+
+    /**
+     * @return the key at the index of the node, which only ever holds elements of the tree
+     */
+    @SuppressWarnings("unchecked")
+    private E key(Node node, int index) {
+        return (E) node.keys[index];
+    }
+
+    /**
+     * Shifts the items from the index up by one and puts the item at the index
+     */
+    private static void insertAt(Object[] items, int count, int index, Object item) {
+        System.arraycopy(items, index, items, index + 1, count - index);
+        items[index] = item;
+    }
+
+    /**
+     * Shifts the items above the index down by one over the item at the index
+     */
+    private static void removeAt(Object[] items, int count, int index) {
+        System.arraycopy(items, index + 1, items, index, count - index - 1);
+        items[count - 1] = null;
+    }
+
+    /**
+     * Lazy in-order walk along the linked leaves, positioned with one descent
+     */
+    private class LeafScan implements Iterator<E> {
+
+        private Leaf leaf;
+        private int index;
+        // upper bound, null if none
+        private final E to;
+        private final boolean toInclusive;
+
+        LeafScan(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            this.to = to;
+            this.toInclusive = toInclusive;
+            if (from == null) {
+                leaf = firstLeaf();
+                index = 0;
+            } else {
+                leaf = leafOf(from);
+                int found = search(leaf, from);
+                index = found >= 0 ? (fromInclusive ? found : found + 1) : -found - 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (leaf != null && index == leaf.count) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            if (leaf == null) {
+                return false;
+            }
+            if (to != null) {
+                int cmp = compare(key(leaf, index), to);
+                if (cmp > 0 || (cmp == 0 && !toInclusive)) {
+                    leaf = null;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return key(leaf, index++);
+        }
+    }
+
+    /**
+     * Node with a sorted array of keys, one slot larger than the maximum to take the key that
+     * overflows it before the split
+     */
+    private static class Node {
+        final Object[] keys;
+        int count;
+
+        Node(int order) {
+            keys = new Object[order];
+            count = 0;
+        }
+    }
+
+    private static class Leaf extends Node {
+        Leaf prev;
+        Leaf next;
+
+        Leaf(int order) {
+            super(order);
+        }
+    }
+
+    private static class Inner extends Node {
+        final Node[] children;
+
+        Inner(int order) {
+            super(order);
+            children = new Node[order + 1];
+        }
+    }
+}
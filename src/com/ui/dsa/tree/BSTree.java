@@ -1,130 +1,274 @@
 package com.ui.dsa.tree;
 
+import com.ui.dsa.tree.metrics.TreeMetrics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
 
 /**
  * Binary search tree
  *
  * @param <E> - data type of nodes
  */
-public class BSTree<E extends Comparable<E>> {
+public class BSTree<E extends Comparable<E>> implements Iterable<E> {
 
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
     private Node root;
     private int size;
-    private int height;
+    // sum of the depths of all nodes, the root being at depth 0
+    private long pathLength;
+    // metrics of the tree, null until enableMetrics is called
+    private TreeMetrics metrics;
 
     public BSTree() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public BSTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
         root = null;
         size = 0;
-        height = 0;
+        pathLength = 0;
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> BSTree<E> fromSorted(E[] data) {
+        return fromSorted(Arrays.asList(data).iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> BSTree<E> fromSorted(List<? extends E> data) {
+        return fromSorted(data.iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> BSTree<E> fromSorted(Iterator<? extends E> data) {
+        List<E> sorted = SortedInput.distinct(data);
+        BSTree<E> tree = new BSTree<>();
+        tree.root = tree.build(sorted, 0, sorted.size() - 1, 0);
+        tree.size = sorted.size();
+        return tree;
     }
 
     public boolean isEmpty() {
         return this.size == 0;
     }
 
+    /**
+     * Starts counting the operations and comparisons of the tree and recording the latencies of its
+     * inserts, deletes and finds
+     *
+     * @return the metrics of the tree, the same on every call
+     * @throws IllegalStateException if the JVM was started without the {@value TreeMetrics#PROPERTY} property
+     */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of the tree, null until they are enabled
+     */
+    public TreeMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countComparison();
+        }
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
     public int getSize() {
         return this.size;
     }
 
-    public void insert(E data) {
-        if (isEmpty()) {
+    /**
+     * Inserts the data with one descent from the root
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return insertData(data);
+        }
+        long start = System.nanoTime();
+        boolean inserted = insertData(data);
+        metrics.recordInsert(System.nanoTime() - start);
+        return inserted;
+    }
+
+    private boolean insertData(E data) {
+        if (root == null) {
             root = new Node(data);
             size++;
-        } else {
-            Node current = root;
-            Node newNode = new Node(data);
-            boolean inserted = false;
-            while (!inserted) {
-                // left direction
-                if (current.getData().compareTo(data) > 0) {
-                    if (current.getLeft() != null) {
-                        current = current.getLeft();
-                    } else {
-                        current.setLeft(newNode);
-                        size++;
-                        inserted = true;
-                    }
-                }
-                // right direction
-                else if (current.getData().compareTo(data) < 0) {
-                    if (current.getRight() != null) {
-                        current = current.getRight();
-                    } else {
-                        current.setRight(newNode);
-                        size++;
-                        inserted = true;
-                    }
-                }
-                // if the element already exists
-                else {
-                    inserted = true;
+            return true;
+        }
+        Node current = root;
+        int depth = 0;
+        while (true) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0) {
+                // the element already exists
+                return false;
+            }
+            Node next = cmp > 0 ? current.getLeft() : current.getRight();
+            depth++;
+            if (next == null) {
+                Node node = new Node(data);
+                node.setParent(current);
+                if (cmp > 0) {
+                    current.setLeft(node);
+                } else {
+                    current.setRight(node);
                 }
+                size++;
+                pathLength += depth;
+                updateAbove(node);
+                return true;
             }
+            current = next;
         }
     }
 
-    public void delete(E data) {
-        if (!isEmpty()) {
-            Node current = find(data);
-            if (current != null) {
-                if (isLeaf(current)) {
-                    // if root
-                    if (getParent(current) == null) {
-                        root = null;
-                    } else {
-                        replace(current, null);
-                    }
-                }
-                // has only left child
-                else if (current.getLeft() != null && current.getRight() == null) {
-                    if (getParent(current) == null) {
-                        root = current.getLeft();
-                    } else {
-                        replace(current, current.getLeft());
-                    }
-                }
-                // has only right child
-                else if (current.getLeft() == null && current.getRight() != null) {
-                    if (getParent(current) == null) {
-                        root = current.getRight();
-                    } else {
-                        replace(current, current.getRight());
-                    }
-                }
-                // has 2 children
-                else {
-                    Node pred = predecessor(current);
-                    delete((E) pred.getData());
-                    current.setData(pred.getData());
-                }
-                size--;
+    /**
+     * Deletes the data with one descent from the root to the node and on to its predecessor
+     *
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return deleteData(data);
+        }
+        long start = System.nanoTime();
+        boolean deleted = deleteData(data);
+        metrics.recordDelete(System.nanoTime() - start);
+        return deleted;
+    }
+
+    private boolean deleteData(E data) {
+        Node parent = null;
+        Node current = root;
+        int depth = 0;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0) {
+                break;
             }
+            parent = current;
+            current = cmp > 0 ? current.getLeft() : current.getRight();
+            depth++;
+        }
+        if (current == null) {
+            return false;
+        }
+        // if the node has 2 children, move the predecessor data into it and remove the predecessor
+        if (current.getLeft() != null && current.getRight() != null) {
+            Node predParent = current;
+            Node pred = current.getLeft();
+            depth++;
+            while (pred.getRight() != null) {
+                predParent = pred;
+                pred = pred.getRight();
+                depth++;
+            }
+            current.setData(pred.getData());
+            parent = predParent;
+            current = pred;
+        }
+        // now the node has at most one child
+        Node child = current.getLeft() != null ? current.getLeft() : current.getRight();
+        if (child != null) {
+            child.setParent(parent);
         }
+        if (parent == null) {
+            root = child;
+        } else if (parent.getLeft() == current) {
+            parent.setLeft(child);
+        } else {
+            parent.setRight(child);
+        }
+        size--;
+        // the node leaves and every node below it moves one level up
+        pathLength -= depth + sizeOf(child);
+        updateAbove(current);
+        return true;
     }
 
     public Node find(E data) {
-        if (isEmpty()) {
-            Node current = root;
-            while (true) {
-                if (current.getData().compareTo(data) > 0 && current.getLeft() != null) {
-                    current = current.getLeft();
-                    continue;
-                } else if (current.getData().compareTo(data) < 0 && current.getRight() != null) {
-                    current = current.getRight();
-                    continue;
-                } else if (current.getData().compareTo(data) == 0) {
-                    return current;
-                }
-                return null;
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return findNode(data);
+        }
+        long start = System.nanoTime();
+        Node found = findNode(data);
+        metrics.recordFind(System.nanoTime() - start);
+        return found;
+    }
+
+    private Node findNode(E data) {
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp > 0) {
+                current = current.getLeft();
+            } else if (cmp < 0) {
+                current = current.getRight();
+            } else {
+                return current;
             }
         }
         return null;
     }
 
     public int height() {
-        return findHeight(root) - 1;
+        return height(root) - 1;
+    }
+
+    /**
+     * Takes the statistics of the shape of the tree in O(1) from the values cached in the root
+     */
+    public TreeStats stats() {
+        return new TreeStats(size, height(), pathLength, -1);
     }
 
     public Node predecessor(Node current) {
@@ -153,7 +297,7 @@ public class BSTree<E extends Comparable<E>> {
         while (current.getLeft() != null) {
             current = current.getLeft();
         }
-        return (E) current.getData();
+        return current.getData();
     }
 
     /**
@@ -167,7 +311,7 @@ public class BSTree<E extends Comparable<E>> {
         while (current.getRight() != null)
             current = current.getRight();
 
-        return (E) current.getData();
+        return current.getData();
     }
 
     /**
@@ -181,6 +325,22 @@ public class BSTree<E extends Comparable<E>> {
         return getLine(line, 0, root, list);
     }
 
+    /**
+     * Returns a lazy in-order iterator. The result is undefined if the tree is modified during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED}, {@code DISTINCT} and {@code SIZED}
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
     /**
      * Tree visualization
      */
@@ -208,49 +368,53 @@ public class BSTree<E extends Comparable<E>> {
         }
     }
 
-    private int findHeight(Node node) {
-        if (node == null) return 0;
-        return 1 + Math.max(findHeight(node.getLeft()), findHeight(node.getRight()));
+    /**
+     * Builds a subtree from the middle of the range down
+     *
+     * @param depth - depth of the root of the subtree
+     */
+    private Node build(List<E> sorted, int low, int high, int depth) {
+        if (low > high) return null;
+        int middle = (low + high) >>> 1;
+        Node node = new Node(sorted.get(middle));
+        Node left = build(sorted, low, middle - 1, depth + 1);
+        Node right = build(sorted, middle + 1, high, depth + 1);
+        node.setLeft(left);
+        node.setRight(right);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        update(node);
+        pathLength += depth;
+        return node;
     }
 
-    private Node getParent(Node child) {
-        Node parent = root;
-        if (parent != null) {
-            while (true) {
-                if (parent.getLeft() != null) {
-                    if (parent.getLeft().getData().compareTo(child.getData()) == 0) {
-                        return parent;
-                    } else if (parent.getData().compareTo(child.getData()) > 0) {
-                        parent = parent.getLeft();
-                        continue;
-                    }
-                }
-                if (parent.getRight() != null) {
-                    if (parent.getRight().getData().compareTo(child.getData()) == 0) {
-                        return parent;
-                    } else if (parent.getData().compareTo(child.getData()) > 0) {
-                        parent = parent.getRight();
-                        continue;
-                    }
-                }
-                return null;
-            }
-        }
-        return null;
+    private int height(Node node) {
+        return node == null ? 0 : node.getHeight();
     }
 
-    private boolean isLeaf(Node node) {
-        return node.getLeft() == null && node.getRight() == null;
+    private int sizeOf(Node node) {
+        return node == null ? 0 : node.getSize();
     }
 
-    private void replace(Node current, Node child) {
-        Node parent = getParent(current);
-        if (parent != null) {
-            if (parent.getData().compareTo(current.getData()) > 0) {
-                parent.setLeft(child);
-            } else {
-                parent.setRight(child);
-            }
+    /**
+     * Recomputes the cached height and subtree size of the node from its children
+     */
+    private void update(Node node) {
+        node.setHeight(1 + Math.max(height(node.getLeft()), height(node.getRight())));
+        node.setSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
+    }
+
+    /**
+     * Recomputes the cached values of the ancestors of the node, from its parent up to the root. Takes
+     * O(depth of the node), the same as the descent that reached it
+     */
+    private void updateAbove(Node node) {
+        for (Node ancestor = node.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+            update(ancestor);
         }
     }
 
@@ -273,26 +437,71 @@ public class BSTree<E extends Comparable<E>> {
                 list.add(null);
             }
             getLine(l, currentLine + 1, current.getRight(), list);
-        } else if (currentLine == l) list.add((E) current.getData());
+        } else if (currentLine == l) list.add(current.getData());
         return list;
     }
 
-    public class Node<E extends Comparable<E>> {
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node> {
+
+        Traversal() {
+            super(root, size, 0);
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        E data(Node node) {
+            return node.getData();
+        }
+
+        @Override
+        Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    public class Node {
         E data;
         Node left;
         Node right;
+        Node parent;
+        int height;
+        int size;
 
         Node(E data) {
             this.data = data;
             left = null;
             right = null;
+            parent = null;
+            height = 1;
+            size = 1;
         }
 
         void setData(E data) {
             this.data = data;
         }
 
-        Node setLeft(Node<E> leftNode) {
+        Node setLeft(Node leftNode) {
             if (left != null) {
                 this.left = leftNode;
                 return null;
@@ -303,7 +512,7 @@ public class BSTree<E extends Comparable<E>> {
             }
         }
 
-        Node setRight(Node<E> rightNode) {
+        Node setRight(Node rightNode) {
             if (left != null) {
                 this.right = rightNode;
                 return null;
@@ -314,6 +523,18 @@ public class BSTree<E extends Comparable<E>> {
             }
         }
 
+        void setParent(Node parentNode) {
+            this.parent = parentNode;
+        }
+
+        void setHeight(int height) {
+            this.height = height;
+        }
+
+        void setSize(int size) {
+            this.size = size;
+        }
+
         Node getLeft() {
             return this.left;
         }
@@ -322,8 +543,20 @@ public class BSTree<E extends Comparable<E>> {
             return this.right;
         }
 
+        Node getParent() {
+            return this.parent;
+        }
+
         E getData() {
             return this.data;
         }
+
+        int getHeight() {
+            return this.height;
+        }
+
+        int getSize() {
+            return this.size;
+        }
     }
 }
@@ -0,0 +1,287 @@
+package com.ui.dsa.tree;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe red black tree for read-mostly sharing
+ * <p>
+ * Writers are serialized by the write mode of a {@link StampedLock} and change an {@link RBTree}.
+ * Readers take no lock: they walk the tree under an optimistic stamp and keep the result only if no
+ * writer ran in the meantime. A reader that overlapped a writer may see a half-done rotation, so
+ * every walk is bounded by the red-black height limit and any exception it throws is discarded; a
+ * failed validation is retried once under the read lock.
+ * <p>
+ * Iteration is weakly consistent: elements are read in batches of {@value #BATCH}, each batch is
+ * one consistent snapshot, and the next batch continues after the last element of the previous one.
+ *
+ * @param <E> - data type of nodes
+ */
+public class ConcurrentRBTree<E extends Comparable<E>> implements Iterable<E> {
+
+    // a red black tree of at most 2^31 nodes is less than 2 * 31 levels deep
+    private static final int MAX_DEPTH = 64;
+    private static final int BATCH = 64;
+
+    // thrown by a walk that went deeper than a consistent tree can be
+    private static final RuntimeException INCONSISTENT = new RuntimeException("Inconsistent tree", null, false, false) {
+    };
+
+    private final RBTree<E> tree;
+    private final StampedLock lock;
+
+    public ConcurrentRBTree() {
+        tree = new RBTree<>();
+        lock = new StampedLock();
+    }
+
+    /**
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        long stamp = lock.writeLock();
+        try {
+            return tree.insert(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        long stamp = lock.writeLock();
+        try {
+            return tree.delete(data);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the element equal to the data without locking
+     *
+     * @return the element stored in the tree, or null if there is none
+     */
+    public E find(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        return read(() -> {
+            RBTree<E>.Node current = tree.root();
+            for (int depth = 0; current != null; depth++) {
+                checkDepth(depth);
+                int cmp = data(current).compareTo(data);
+                if (cmp > 0) {
+                    current = current.getLeft();
+                } else if (cmp < 0) {
+                    current = current.getRight();
+                } else {
+                    return data(current);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Finds the minimum value in a tree without locking
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        E min = first();
+        if (min == null) {
+            throw new NoSuchElementException();
+        }
+        return min;
+    }
+
+    /**
+     * Finds the maximum value in a tree without locking
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        E max = last();
+        if (max == null) {
+            throw new NoSuchElementException();
+        }
+        return max;
+    }
+
+    /**
+     * @return the minimum value, or null if the tree is empty
+     */
+    E first() {
+        return read(() -> edge(true));
+    }
+
+    /**
+     * @return the maximum value, or null if the tree is empty
+     */
+    E last() {
+        return read(() -> edge(false));
+    }
+
+    public int size() {
+        return read(tree::size);
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a weakly consistent in-order iterator that reads the tree in batches without locking
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new BatchIterator();
+    }
+
+    /**
+     * Runs the reader under an optimistic stamp, and again under the read lock if a writer interfered
+     */
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // a consistent tree cannot throw, so it is a real failure only if no writer interfered
+                if (e != INCONSISTENT && lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private E edge(boolean leftmost) {
+        RBTree<E>.Node current = tree.root();
+        if (current == null) {
+            return null;
+        }
+        for (int depth = 0; ; depth++) {
+            checkDepth(depth);
+            RBTree<E>.Node next = leftmost ? current.getLeft() : current.getRight();
+            if (next == null) {
+                return data(current);
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Reads up to {@value #BATCH} elements greater than the given one in ascending order
+     *
+     * @param after - element to continue after, null to start at the minimum
+     * @return the number of elements read into the buffer
+     */
+    @SuppressWarnings("unchecked")
+    private int readBatch(E after, Object[] buffer) {
+        RBTree<E>.Node[] stack = (RBTree<E>.Node[]) new RBTree<?>.Node[MAX_DEPTH];
+        int top = 0;
+        // keep every node past the last element on the way down, they follow in reverse order
+        RBTree<E>.Node current = tree.root();
+        for (int depth = 0; current != null; depth++) {
+            checkDepth(depth);
+            if (after == null || data(current).compareTo(after) > 0) {
+                stack[top++] = current;
+                current = current.getLeft();
+            } else {
+                current = current.getRight();
+            }
+        }
+        int count = 0;
+        while (count < buffer.length && top > 0) {
+            RBTree<E>.Node node = stack[--top];
+            buffer[count++] = data(node);
+            for (current = node.getRight(); current != null; current = current.getLeft()) {
+                checkDepth(top);
+                stack[top++] = current;
+            }
+        }
+        return count;
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth >= MAX_DEPTH) {
+            throw INCONSISTENT;
+        }
+    }
+
+    private E data(RBTree<E>.Node node) {
+        E data = node.getData();
+        if (data == null) {
+            // a node seen before its fields were published
+            throw INCONSISTENT;
+        }
+        return data;
+    }
+
+    /**
+     * Hands out batches read by {@link #readBatch}, each under its own optimistic stamp
+     */
+    private class BatchIterator implements Iterator<E> {
+
+        private final Object[] buffer = new Object[BATCH];
+        private int position;
+        private int count;
+        private E last;
+        private boolean exhausted;
+
+        BatchIterator() {
+            position = 0;
+            count = 0;
+            last = null;
+            exhausted = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (position < count) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            count = read(() -> readBatch(last, buffer));
+            position = 0;
+            exhausted = count < BATCH;
+            return count > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = (E) buffer[position];
+            buffer[position++] = null;
+            return last;
+        }
+    }
+}
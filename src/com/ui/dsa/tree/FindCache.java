@@ -0,0 +1,295 @@
+package com.ui.dsa.tree;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Bounded cache of recently found nodes, consulted before the descent of a find
+ * <p>
+ * An open-addressed hash table with linear probing maps the element of a node to the node. The table
+ * is kept at most half full, so a lookup touches one or two adjacent slots instead of the dozens of
+ * nodes scattered over the heap that a descent of a large tree visits. When the cache is full, a
+ * CLOCK hand picks the entry to evict: every hit sets a reference bit, and the hand sweeps the table
+ * clearing set bits until it meets an entry without one, which approximates LRU without touching
+ * shared state on a hit.
+ * <p>
+ * A full cache admits an element only on its second miss, as the doorkeeper of W-TinyLFU does: the
+ * first miss just sets a bit for the hash of the element in a small bitmap, which is cleared once
+ * it fills up. Lookups spread uniformly over a tree much larger than the cache would otherwise evict
+ * an entry on every miss for elements that never come back.
+ * <p>
+ * Entries are keyed by the element stored in the node and matched with {@code equals}, so the
+ * elements must have {@code equals} and {@code hashCode} consistent with the ordering of the tree to
+ * get hits; others only miss. The tree removes the entries of the nodes it deletes or moves data
+ * between, and drops all entries when a bulk operation relinks its nodes. Like the tree, the cache is
+ * not thread-safe.
+ *
+ * @param <E> - data type of nodes
+ * @param <N> - node type of the tree
+ */
+public final class FindCache<E, N> {
+
+    // bytes of a reference: compressed pointers are used below 32 GB of heap on 64-bit JVMs
+    private static final int REFERENCE_BYTES = "64".equals(System.getProperty("sun.arch.data.model"))
+            && Runtime.getRuntime().maxMemory() >= 32L << 30 ? 8 : 4;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final int capacity;
+    // index of a hash is its top bits
+    private final int shift;
+    private final Object[] keys;
+    private final Object[] nodes;
+    private final int[] hashes;
+    private final boolean[] referenced;
+    // hashes of the elements that missed once while the cache was full
+    private final long[] doorkeeper;
+    private int doorkeeperBits;
+    private int count;
+    private int hand;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * @param capacity - maximum number of cached nodes
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^29
+     */
+    FindCache(int capacity) {
+        if (capacity < 1 || capacity > 1 << 29) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        this.capacity = capacity;
+        // a power of two of at least twice the capacity
+        int length = Integer.highestOneBit(2 * capacity - 1) << 1;
+        shift = Integer.numberOfLeadingZeros(length) + 1;
+        keys = new Object[length];
+        nodes = new Object[length];
+        hashes = new int[length];
+        referenced = new boolean[length];
+        doorkeeper = new long[Math.max(1, length / Long.SIZE)];
+    }
+
+    /**
+     * Looks the element up, marking the entry as recently used on a hit
+     *
+     * @return the cached node of the element, or null on a miss
+     */
+    @SuppressWarnings("unchecked")
+    N get(E key) {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        for (int i = hash >>> shift; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                referenced[i] = true;
+                hits++;
+                return (N) nodes[i];
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Caches a node under its element. A full cache evicts an entry for it if the doorkeeper admits it
+     */
+    void put(E key, N node) {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        int i = hash >>> shift;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                nodes[i] = node;
+                return;
+            }
+        }
+        if (count == capacity) {
+            if (!admit(hash)) {
+                return;
+            }
+            evict();
+            // the eviction may have shifted entries into the probed slots
+            i = hash >>> shift;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        nodes[i] = node;
+        hashes[i] = hash;
+        referenced[i] = false;
+        count++;
+    }
+
+    /**
+     * Drops the entry of the element, if there is one
+     */
+    void remove(E key) {
+        int hash = hash(key);
+        int mask = keys.length - 1;
+        for (int i = hash >>> shift; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && key.equals(keys[i])) {
+                removeAt(i);
+                invalidations++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops all entries, keeping the counters
+     */
+    void clear() {
+        if (count == 0) {
+            return;
+        }
+        Arrays.fill(keys, null);
+        Arrays.fill(nodes, null);
+        Arrays.fill(referenced, false);
+        invalidations += count;
+        count = 0;
+    }
+
+    /**
+     * Sets the bit of the hash in the doorkeeper, clearing the doorkeeper when half of its bits are set
+     *
+     * @return true if the bit was already set
+     */
+    private boolean admit(int hash) {
+        // fold the top bits, which index the table, into the low ones
+        int bit = (hash ^ hash >>> 15) & (doorkeeper.length * Long.SIZE - 1);
+        long mask = 1L << bit;
+        int word = bit >>> 6;
+        if ((doorkeeper[word] & mask) != 0) {
+            return true;
+        }
+        if (++doorkeeperBits > doorkeeper.length * Long.SIZE / 2) {
+            Arrays.fill(doorkeeper, 0);
+            doorkeeperBits = 1;
+        }
+        doorkeeper[word] |= mask;
+        return false;
+    }
+
+    /**
+     * Advances the CLOCK hand to the first entry not used since the hand last passed it and drops it
+     */
+    private void evict() {
+        int mask = keys.length - 1;
+        while (true) {
+            if (keys[hand] != null) {
+                if (!referenced[hand]) {
+                    // the hand stays, an entry may have been shifted into the freed slot
+                    removeAt(hand);
+                    evictions++;
+                    return;
+                }
+                referenced[hand] = false;
+            }
+            hand = (hand + 1) & mask;
+        }
+    }
+
+    /**
+     * Empties the slot and moves back the following entries of the probe run that can no longer be
+     * reached past the gap
+     */
+    private void removeAt(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        for (int i = (slot + 1) & mask; keys[i] != null; i = (i + 1) & mask) {
+            int home = hashes[i] >>> shift;
+            // the entry stays if its home lies cyclically after the gap and up to its slot
+            boolean reachable = gap <= i ? gap < home && home <= i : gap < home || home <= i;
+            if (!reachable) {
+                keys[gap] = keys[i];
+                nodes[gap] = nodes[i];
+                hashes[gap] = hashes[i];
+                referenced[gap] = referenced[i];
+                gap = i;
+            }
+        }
+        keys[gap] = null;
+        nodes[gap] = null;
+        referenced[gap] = false;
+        count--;
+    }
+
+    private static int hash(Object key) {
+        // Fibonacci hashing: the top bits of the product depend on all bits of the hash code
+        return key.hashCode() * 0x9E3779B9;
+    }
+
+    /**
+     * @return maximum number of cached nodes
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of cached nodes
+     */
+    public int getSize() {
+        return count;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return hits per lookup, 0 before the first lookup
+     */
+    public double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return entries dropped to make room for new ones
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return entries dropped because their node was deleted, changed or relinked
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Estimates the memory taken by the tables of the cache, which is fixed by the capacity. The
+     * cached elements and nodes belong to the tree and are not counted
+     *
+     * @return the size of the tables in bytes
+     */
+    public long getMemoryBytes() {
+        long length = keys.length;
+        return 5 * ARRAY_HEADER_BYTES + 2 * length * REFERENCE_BYTES + length * Integer.BYTES + length
+                + (long) doorkeeper.length * Long.BYTES;
+    }
+
+    /**
+     * Zeroes the hit, miss, eviction and invalidation counters
+     */
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "size=%d/%d, hitRatio=%.3f, hits=%d, misses=%d, evictions=%d, "
+                        + "invalidations=%d, memory=%d bytes",
+                count, capacity, getHitRatio(), hits, misses, evictions, invalidations, getMemoryBytes());
+    }
+}
@@ -0,0 +1,295 @@
+package com.ui.dsa.tree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazy in-order traversal of a binary tree, usable both as an {@link Iterator} and a {@link Spliterator}
+ * <p>
+ * The pending work is an explicit stack of items, top first in traversal order. An item is either a
+ * single node or a whole subtree; expanding a subtree replaces it with its left subtree, its root and
+ * its right subtree. The stack never holds more than about twice the tree height, and it is only
+ * reallocated if a degenerate tree outgrows the initial capacity, so traversal allocates nothing per
+ * element.
+ * <p>
+ * A traversal can be limited to a range of elements: the stack is then seeded by one descent to the
+ * lower bound, and the traversal ends at the first element past the upper bound.
+ * <p>
+ * {@link #trySplit()} hands out the items on top of the stack and keeps those below, so the split
+ * follows subtree boundaries. If the tree keeps subtree sizes, see {@link #size}, the split is exact:
+ * a top subtree holding more than half of the remaining elements is expanded first, the items are
+ * divided into two halves of about the same size, and both halves report {@code SIZED} and
+ * {@code SUBSIZED}. Otherwise the bottom item is kept and the halves estimate their sizes. The
+ * result is undefined if the tree is modified during the traversal.
+ *
+ * @param <E> - data type of nodes
+ * @param <N> - node type of the tree
+ */
+abstract class InOrderSpliterator<E extends Comparable<E>, N> implements Iterator<E>, Spliterator<E> {
+
+    private static final int DEFAULT_DEPTH = 16;
+
+    private Object[] nodes;
+    private boolean[] subtree;
+    private int count;
+    private long estimate;
+    private boolean split;
+    // upper bound, null if none
+    private final E to;
+    private final boolean toInclusive;
+    private final boolean bounded;
+    // true if the estimate is the exact number of remaining elements, also after splits
+    private final boolean exact;
+
+    /**
+     * @param root     - root of the traversed tree, may be null
+     * @param size     - number of nodes in the tree
+     * @param maxDepth - expected maximum depth of the tree, the stack grows past it if needed
+     */
+    InOrderSpliterator(N root, long size, int maxDepth) {
+        this(root, size, maxDepth, null, false, null, false);
+    }
+
+    /**
+     * @param root          - root of the traversed tree, may be null
+     * @param size          - number of nodes in the tree, or an upper estimate of the nodes in the range
+     * @param maxDepth      - expected maximum depth of the tree, the stack grows past it if needed
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    InOrderSpliterator(N root, long size, int maxDepth, E from, boolean fromInclusive, E to, boolean toInclusive) {
+        int capacity = 2 * Math.max(maxDepth, DEFAULT_DEPTH) + 2;
+        nodes = new Object[capacity];
+        subtree = new boolean[capacity];
+        count = 0;
+        estimate = size;
+        this.to = to;
+        this.toInclusive = toInclusive;
+        this.bounded = from != null || to != null;
+        this.exact = !bounded && (root == null || size(root) >= 0);
+        split = false;
+        if (from == null) {
+            if (root != null) {
+                push(root, true);
+            }
+        } else {
+            // keep every node at or past the lower bound, with its right subtree, on the way down
+            N node = root;
+            while (node != null) {
+                int cmp = compare(data(node), from);
+                if (cmp > 0 || (cmp == 0 && fromInclusive)) {
+                    if (right(node) != null) {
+                        push(right(node), true);
+                    }
+                    push(node, false);
+                    node = left(node);
+                } else {
+                    node = right(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a traversal over the items split off another traversal
+     */
+    InOrderSpliterator(Object[] nodes, boolean[] subtree, int count, long estimate, InOrderSpliterator<E, N> parent) {
+        this.nodes = nodes;
+        this.subtree = subtree;
+        this.count = count;
+        this.estimate = estimate;
+        this.to = parent.to;
+        this.toInclusive = parent.toInclusive;
+        this.bounded = parent.bounded;
+        this.exact = parent.exact;
+        this.split = true;
+    }
+
+    abstract N left(N node);
+
+    abstract N right(N node);
+
+    abstract E data(N node);
+
+    /**
+     * @return the ordering of the tree, null for the natural ordering of the elements
+     */
+    Comparator<? super E> comparator() {
+        return null;
+    }
+
+    /**
+     * Counts the nodes of the subtree under the node, which makes the splits exact
+     *
+     * @return the size of the subtree, or -1 if the tree does not keep subtree sizes
+     */
+    long size(N node) {
+        return -1;
+    }
+
+    /**
+     * Creates a traversal of the same tree and range over the given items
+     */
+    abstract InOrderSpliterator<E, N> create(Object[] nodes, boolean[] subtree, int count, long estimate);
+
+    @Override
+    public boolean hasNext() {
+        if (count == 0) {
+            return false;
+        }
+        if (to == null) {
+            return true;
+        }
+        // expand subtrees until a single node is on top, and stop if it is past the upper bound
+        while (subtree[count - 1]) {
+            expand();
+        }
+        @SuppressWarnings("unchecked")
+        int cmp = compare(data((N) nodes[count - 1]), to);
+        if (cmp > 0 || (cmp == 0 && !toInclusive)) {
+            Arrays.fill(nodes, 0, count, null);
+            count = 0;
+            estimate = 0;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        // expand subtrees until a single node is on top
+        while (subtree[count - 1]) {
+            expand();
+        }
+        @SuppressWarnings("unchecked")
+        N node = (N) nodes[--count];
+        nodes[count] = null;
+        if (estimate > 0) {
+            estimate--;
+        }
+        return data(node);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        if (!hasNext()) {
+            return false;
+        }
+        action.accept(next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+        while (hasNext()) {
+            action.accept(next());
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Spliterator<E> trySplit() {
+        if (exact) {
+            // a subtree with most of the elements cannot go to either half whole
+            while (count > 0 && subtree[count - 1] && 2 * size((N) nodes[count - 1]) > estimate) {
+                expand();
+            }
+        } else if (count == 1 && subtree[0]) {
+            expand();
+        }
+        if (count < 2) {
+            return null;
+        }
+        // keep the bottom items, the prefix takes the others
+        int keep = 1;
+        long kept = 0;
+        if (exact) {
+            kept = itemSize(0);
+            // take the next item as long as that brings the kept part nearer to half
+            while (keep < count - 1 && 2 * kept + itemSize(keep) <= estimate) {
+                kept += itemSize(keep++);
+            }
+        }
+        int prefixCount = count - keep;
+        Object[] prefixNodes = new Object[nodes.length];
+        boolean[] prefixSubtree = new boolean[nodes.length];
+        System.arraycopy(nodes, keep, prefixNodes, 0, prefixCount);
+        System.arraycopy(subtree, keep, prefixSubtree, 0, prefixCount);
+        Arrays.fill(nodes, keep, count, null);
+        count = keep;
+        long prefixEstimate = exact ? estimate - kept : estimate >>> 1;
+        estimate -= prefixEstimate;
+        split = true;
+        return create(prefixNodes, prefixSubtree, prefixCount, prefixEstimate);
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        if (exact) {
+            return ORDERED | DISTINCT | SORTED | NONNULL | SIZED | SUBSIZED;
+        }
+        return ORDERED | DISTINCT | SORTED | NONNULL | (split || bounded ? 0 : SIZED);
+    }
+
+    @Override
+    public Comparator<? super E> getComparator() {
+        return comparator();
+    }
+
+    /**
+     * Replaces the subtree on top of the stack with its right subtree, its root and its left subtree
+     */
+    private void expand() {
+        @SuppressWarnings("unchecked")
+        N node = (N) nodes[--count];
+        N right = right(node);
+        N left = left(node);
+        if (right != null) {
+            push(right, true);
+        }
+        push(node, false);
+        if (left != null) {
+            push(left, true);
+        }
+    }
+
+    private int compare(E first, E second) {
+        Comparator<? super E> comparator = comparator();
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long itemSize(int index) {
+        return subtree[index] ? size((N) nodes[index]) : 1;
+    }
+
+    private void push(N node, boolean isSubtree) {
+        if (count == nodes.length) {
+            nodes = Arrays.copyOf(nodes, count * 2);
+            subtree = Arrays.copyOf(subtree, count * 2);
+        }
+        nodes[count] = node;
+        subtree[count] = isSubtree;
+        count++;
+    }
+}
@@ -0,0 +1,191 @@
+package com.ui.dsa.tree;
+
+import java.util.NoSuchElementException;
+
+/**
+ * AVL tree of primitive {@code long} keys
+ * <p>
+ * Same algorithm as {@link AVLTree}, but keys are stored unboxed and compared with {@code <},
+ * and the balance factor is derived from the cached heights instead of being stored
+ */
+public class LongAVLTree {
+
+    private Node root;
+    private int size;
+
+    public LongAVLTree() {
+        this.root = null;
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void insert(long data) {
+        root = insert(root, data);
+    }
+
+    public boolean delete(long data) {
+        int oldSize = size;
+        root = delete(root, data);
+        return size != oldSize;
+    }
+
+    public Node find(long data) {
+        Node current = root;
+        while (current != null) {
+            if (data < current.data) {
+                current = current.left;
+            } else if (data > current.data) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.data;
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.data;
+    }
+
+    public int height() {
+        return height(root) - 1;
+    }
+
+    private Node insert(Node current, long data) {
+        if (current == null) {
+            size++;
+            return new Node(data);
+        }
+        if (data < current.data) {
+            current.left = insert(current.left, data);
+        } else if (data > current.data) {
+            current.right = insert(current.right, data);
+        } else {
+            // the element already exists
+            return current;
+        }
+        return balance(current);
+    }
+
+    private Node delete(Node current, long data) {
+        if (current == null) {
+            return null;
+        }
+        if (data < current.data) {
+            current.left = delete(current.left, data);
+        } else if (data > current.data) {
+            current.right = delete(current.right, data);
+        } else if (current.left == null) {
+            size--;
+            return current.right;
+        } else if (current.right == null) {
+            size--;
+            return current.left;
+        } else {
+            // the node has 2 children: replace its key with the predecessor
+            Node pred = current.left;
+            while (pred.right != null) {
+                pred = pred.right;
+            }
+            current.data = pred.data;
+            current.left = delete(current.left, pred.data);
+        }
+        return balance(current);
+    }
+
+    private Node balance(Node current) {
+        update(current);
+        int balance = height(current.right) - height(current.left);
+        if (balance == -2) {
+            if (height(current.left.right) > height(current.left.left)) {
+                current.left = rotateLeft(current.left);
+            }
+            return rotateRight(current);
+        } else if (balance == 2) {
+            if (height(current.right.left) > height(current.right.right)) {
+                current.right = rotateRight(current.right);
+            }
+            return rotateLeft(current);
+        }
+        return current;
+    }
+
+    private Node rotateLeft(Node current) {
+        Node y = current.right;
+        current.right = y.left;
+        y.left = current;
+        update(current);
+        update(y);
+        return y;
+    }
+
+    private Node rotateRight(Node current) {
+        Node y = current.left;
+        current.left = y.right;
+        y.right = current;
+        update(current);
+        update(y);
+        return y;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private void update(Node current) {
+        current.height = 1 + Math.max(height(current.left), height(current.right));
+    }
+
+    public static class Node {
+        long data;
+        Node left;
+        Node right;
+        int height;
+
+        Node(long data) {
+            this.data = data;
+            this.height = 1;
+        }
+
+        public long getData() {
+            return this.data;
+        }
+    }
+}
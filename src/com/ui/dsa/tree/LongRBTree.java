@@ -0,0 +1,291 @@
+package com.ui.dsa.tree;
+
+import com.ui.dsa.tree.enumerations.RBTreeColor;
+
+import java.util.NoSuchElementException;
+
+import static com.ui.dsa.tree.enumerations.RBTreeColor.BLACK;
+import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
+
+/**
+ * Red black tree of primitive {@code long} keys
+ * <p>
+ * Same algorithm as {@link RBTree}, but keys are stored unboxed and compared with {@code <},
+ * so an insert allocates only the node
+ */
+public class LongRBTree {
+
+    private Node root;
+    private int size;
+
+    public LongRBTree() {
+        size = 0;
+        root = null;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void insert(long data) {
+        // case 1: if root
+        if (root == null) {
+            root = new Node(data);
+            root.color = BLACK;
+            size++;
+            return;
+        }
+        Node parent = root;
+        while (true) {
+            if (data < parent.data) {
+                if (parent.left == null) {
+                    parent.left = new Node(data);
+                    parent.left.parent = parent;
+                    size++;
+                    fixAfterInsert(parent.left);
+                    return;
+                }
+                parent = parent.left;
+            } else if (data > parent.data) {
+                if (parent.right == null) {
+                    parent.right = new Node(data);
+                    parent.right.parent = parent;
+                    size++;
+                    fixAfterInsert(parent.right);
+                    return;
+                }
+                parent = parent.right;
+            } else {
+                // the element already exists
+                return;
+            }
+        }
+    }
+
+    public boolean delete(long data) {
+        Node current = find(data);
+        if (current == null) {
+            return false;
+        }
+        // if the node has 2 children, move the predecessor key into it and remove the predecessor
+        if (current.left != null && current.right != null) {
+            Node pred = current.left;
+            while (pred.right != null) {
+                pred = pred.right;
+            }
+            current.data = pred.data;
+            current = pred;
+        }
+        Node child = current.left != null ? current.left : current.right;
+        if (child != null) {
+            replace(current, child);
+            child.color = BLACK;
+        } else if (current.parent == null) {
+            root = null;
+        } else {
+            if (current.color == BLACK) {
+                fixAfterDelete(current);
+            }
+            replace(current, null);
+        }
+        size--;
+        return true;
+    }
+
+    public Node find(long data) {
+        Node current = root;
+        while (current != null) {
+            if (data < current.data) {
+                current = current.left;
+            } else if (data > current.data) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.data;
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.data;
+    }
+
+    public int height() {
+        return findHeight(root) - 1;
+    }
+
+    private int findHeight(Node node) {
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(findHeight(node.left), findHeight(node.right));
+    }
+
+    private void fixAfterInsert(Node current) {
+        while (current.parent != null && current.parent.color == RED) {
+            Node parent = current.parent;
+            Node gp = parent.parent;
+            Node uncle = parent == gp.left ? gp.right : gp.left;
+            if (colorOf(uncle) == RED) {
+                parent.color = BLACK;
+                uncle.color = BLACK;
+                gp.color = RED;
+                current = gp;
+            } else {
+                if (current == parent.right && parent == gp.left) {
+                    rotateLeft(parent);
+                    current = parent;
+                } else if (current == parent.left && parent == gp.right) {
+                    rotateRight(parent);
+                    current = parent;
+                }
+                parent = current.parent;
+                parent.color = BLACK;
+                gp.color = RED;
+                if (current == parent.left) {
+                    rotateRight(gp);
+                } else {
+                    rotateLeft(gp);
+                }
+            }
+        }
+        root.color = BLACK;
+    }
+
+    private void fixAfterDelete(Node current) {
+        while (current != root && current.color == BLACK) {
+            Node parent = current.parent;
+            boolean left = current == parent.left;
+            Node sibling = left ? parent.right : parent.left;
+            if (sibling.color == RED) {
+                sibling.color = BLACK;
+                parent.color = RED;
+                if (left) {
+                    rotateLeft(parent);
+                    sibling = parent.right;
+                } else {
+                    rotateRight(parent);
+                    sibling = parent.left;
+                }
+            }
+            if (colorOf(sibling.left) == BLACK && colorOf(sibling.right) == BLACK) {
+                sibling.color = RED;
+                current = parent;
+            } else {
+                if (left && colorOf(sibling.right) == BLACK) {
+                    sibling.left.color = BLACK;
+                    sibling.color = RED;
+                    rotateRight(sibling);
+                    sibling = parent.right;
+                } else if (!left && colorOf(sibling.left) == BLACK) {
+                    sibling.right.color = BLACK;
+                    sibling.color = RED;
+                    rotateLeft(sibling);
+                    sibling = parent.left;
+                }
+                sibling.color = parent.color;
+                parent.color = BLACK;
+                if (left) {
+                    sibling.right.color = BLACK;
+                    rotateLeft(parent);
+                } else {
+                    sibling.left.color = BLACK;
+                    rotateRight(parent);
+                }
+                current = root;
+            }
+        }
+        current.color = BLACK;
+    }
+
+    private void rotateLeft(Node current) {
+        Node right = current.right;
+        current.right = right.left;
+        if (right.left != null) {
+            right.left.parent = current;
+        }
+        replace(current, right);
+        right.left = current;
+        current.parent = right;
+    }
+
+    private void rotateRight(Node current) {
+        Node left = current.left;
+        current.left = left.right;
+        if (left.right != null) {
+            left.right.parent = current;
+        }
+        replace(current, left);
+        left.right = current;
+        current.parent = left;
+    }
+
+    private void replace(Node current, Node child) {
+        Node parent = current.parent;
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == current) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        if (child != null) {
+            child.parent = parent;
+        }
+    }
+
+    private RBTreeColor colorOf(Node node) {
+        return node == null ? BLACK : node.color;
+    }
+
+    public static class Node {
+        long data;
+        Node left;
+        Node right;
+        Node parent;
+        RBTreeColor color;
+
+        Node(long data) {
+            this.data = data;
+            this.color = RED;
+        }
+
+        public long getData() {
+            return this.data;
+        }
+    }
+}
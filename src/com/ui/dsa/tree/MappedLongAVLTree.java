@@ -0,0 +1,555 @@
+package com.ui.dsa.tree;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * AVL tree of {@code long} keys with {@code long} payloads, persisted in a memory-mapped file
+ * <p>
+ * Opening a file reads and validates the header before mapping the file, after which {@link #find}
+ * walks the mapped nodes directly, without deserializing anything. The file is append-only with
+ * copy-on-write: a write never changes a node reachable from the last committed root, it appends
+ * copies of the nodes on its path instead. {@link #commit()} forces the appended nodes to disk and
+ * then writes the new root into one of two header slots, alternating between them, each with a
+ * generation number and a checksum. After a crash the file opens at the newest valid header, which
+ * always points to a complete tree; writes that were not committed are lost. Nodes appended since
+ * the last commit are not reachable from any header yet, so later writes of the same batch update
+ * them in place.
+ * <p>
+ * File layout:
+ * <pre>
+ *   0  header slot 0: magic, generation, root, size, end, crc32 (8 bytes each)
+ *  64  header slot 1
+ * 128  nodes: key long, value long, left long, right long, height int, padding int
+ * </pre>
+ * Node references are file offsets, 0 if none. The file is mapped in regions of {@value #REGION_SIZE}
+ * bytes and nodes never cross a region boundary. Replaced nodes are not reclaimed.
+ * <p>
+ * {@link #close()} commits and unmaps all regions; the tree cannot be used afterwards.
+ */
+public class MappedLongAVLTree implements AutoCloseable {
+
+    private static final long NIL = 0;
+    private static final long MAGIC = 0x4253545245453031L; // "BSTREE01"
+
+    private static final int HEADER_SLOT_SIZE = 64;
+    private static final int DATA_START = 2 * HEADER_SLOT_SIZE;
+    private static final int HEADER_FIELDS = 5;
+
+    private static final int NODE_SIZE = 40;
+    private static final int KEY = 0;
+    private static final int VALUE = 8;
+    private static final int LEFT = 16;
+    private static final int RIGHT = 24;
+    private static final int HEIGHT = 32;
+
+    private static final int REGION_SHIFT = 24;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+
+    // sun.misc.Unsafe.invokeCleaner unmaps a mapped buffer immediately (JDK 9+)
+    private static final Object UNSAFE = findUnsafe();
+    private static final Method INVOKE_CLEANER = findInvokeCleaner();
+
+    private final FileChannel channel;
+    private MappedByteBuffer[] regions;
+
+    private long generation;
+    private long root;
+    private long size;
+    // first free byte of the file
+    private long end;
+    // end of the file at the last commit: nodes below it are reachable from a header and immutable
+    private long committedEnd;
+
+    private MappedLongAVLTree(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.regions = new MappedByteBuffer[4];
+        if (channel.size() == 0) {
+            generation = 0;
+            root = NIL;
+            size = 0;
+            end = DATA_START;
+            committedEnd = end;
+            writeHeader();
+            region(0).force();
+        } else {
+            readHeader();
+        }
+    }
+
+    /**
+     * Opens the tree stored in the file, or creates an empty one if the file does not exist or is
+     * empty. A file without a valid header is rejected before anything is mapped, so it is left
+     * unchanged
+     *
+     * @param path - file of the tree
+     * @return the opened tree
+     * @throws IOException if the file cannot be opened or holds no valid header
+     */
+    public static MappedLongAVLTree open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new MappedLongAVLTree(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Inserts the key with the value, or replaces the value if the key already exists.
+     * The change becomes durable on the next {@link #commit()}
+     *
+     * @return true if the key was not in the tree before
+     */
+    public boolean insert(long key, long value) {
+        checkOpen();
+        long oldSize = size;
+        root = insert(root, key, value);
+        return size != oldSize;
+    }
+
+    /**
+     * Deletes the key with one descent from the root. The change becomes durable on the next
+     * {@link #commit()}
+     *
+     * @return true if the key was in the tree
+     */
+    public boolean delete(long key) {
+        checkOpen();
+        long oldSize = size;
+        root = delete(root, key);
+        return size != oldSize;
+    }
+
+    public boolean contains(long key) {
+        checkOpen();
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * Finds the value of the key
+     *
+     * @param key          - key to look up
+     * @param missingValue - value to return if the key is not in the tree
+     * @return the value of the key, or missingValue
+     */
+    public long find(long key, long missingValue) {
+        checkOpen();
+        long node = findNode(key);
+        return node == NIL ? missingValue : getLong(node + VALUE);
+    }
+
+    /**
+     * Finds the minimum key in a tree
+     *
+     * @return - the minimum found key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long min() {
+        checkOpen();
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        long current = root;
+        while (left(current) != NIL) {
+            current = left(current);
+        }
+        return key(current);
+    }
+
+    /**
+     * Finds the maximum key in a tree
+     *
+     * @return - the maximum found key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long max() {
+        checkOpen();
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        long current = root;
+        while (right(current) != NIL) {
+            current = right(current);
+        }
+        return key(current);
+    }
+
+    public int height() {
+        checkOpen();
+        return height(root) - 1;
+    }
+
+    /**
+     * Makes all writes so far durable: forces the appended nodes to disk, then switches the header
+     * to the new root and forces it
+     */
+    public void commit() {
+        checkOpen();
+        if (end == committedEnd && root == committedRoot()) {
+            return;
+        }
+        int first = (int) (committedEnd >>> REGION_SHIFT);
+        int last = (int) ((end - 1) >>> REGION_SHIFT);
+        for (int i = first; i <= last; i++) {
+            region(i).force();
+        }
+        generation++;
+        writeHeader();
+        region(0).force();
+        committedEnd = end;
+    }
+
+    /**
+     * Commits the pending writes, unmaps all regions right away through the buffers' cleaners and
+     * closes the file. If the JDK does not expose the cleaners, the regions stay mapped until the
+     * dropped buffers are garbage collected
+     */
+    @Override
+    public void close() throws IOException {
+        if (regions == null) {
+            return;
+        }
+        try {
+            commit();
+        } finally {
+            for (MappedByteBuffer region : regions) {
+                if (region != null) {
+                    unmap(region);
+                }
+            }
+            Arrays.fill(regions, null);
+            regions = null;
+            channel.close();
+        }
+    }
+
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // leave the buffer to the garbage collector
+        }
+    }
+
+    private static Object findUnsafe() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method findInvokeCleaner() {
+        try {
+            return UNSAFE == null ? null : UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private long insert(long node, long key, long value) {
+        if (node == NIL) {
+            size++;
+            return allocate(key, value);
+        }
+        long data = key(node);
+        long current;
+        if (key < data) {
+            long left = insert(left(node), key, value);
+            current = writable(node);
+            putLong(current + LEFT, left);
+        } else if (key > data) {
+            long right = insert(right(node), key, value);
+            current = writable(node);
+            putLong(current + RIGHT, right);
+        } else {
+            current = writable(node);
+            putLong(current + VALUE, value);
+            return current;
+        }
+        return balance(current);
+    }
+
+    /**
+     * Deletes the key from the subtree, copying and rebalancing the nodes on the way back up. A
+     * subtree without the key is returned as it is, so a missing key appends nothing
+     *
+     * @return the new root of the subtree
+     */
+    private long delete(long node, long key) {
+        if (node == NIL) {
+            return NIL;
+        }
+        long oldSize = size;
+        long data = key(node);
+        if (key < data) {
+            long left = delete(left(node), key);
+            if (size == oldSize) {
+                return node;
+            }
+            long current = writable(node);
+            putLong(current + LEFT, left);
+            return balance(current);
+        } else if (key > data) {
+            long right = delete(right(node), key);
+            if (size == oldSize) {
+                return node;
+            }
+            long current = writable(node);
+            putLong(current + RIGHT, right);
+            return balance(current);
+        } else if (left(node) == NIL) {
+            size--;
+            return right(node);
+        } else if (right(node) == NIL) {
+            size--;
+            return left(node);
+        }
+        // the node has 2 children: replace it with the predecessor
+        long pred = left(node);
+        while (right(pred) != NIL) {
+            pred = right(pred);
+        }
+        long predKey = key(pred);
+        long predValue = getLong(pred + VALUE);
+        long left = delete(left(node), predKey);
+        long current = writable(node);
+        putLong(current + KEY, predKey);
+        putLong(current + VALUE, predValue);
+        putLong(current + LEFT, left);
+        return balance(current);
+    }
+
+    /**
+     * Restores the height and balance of a writable node, whose subtrees are already balanced
+     *
+     * @return the new root of the subtree
+     */
+    private long balance(long current) {
+        update(current);
+        int balance = height(right(current)) - height(left(current));
+        if (balance == -2) {
+            long left = left(current);
+            if (height(right(left)) > height(left(left))) {
+                putLong(current + LEFT, rotateLeft(writable(left)));
+            }
+            return rotateRight(current);
+        } else if (balance == 2) {
+            long right = right(current);
+            if (height(left(right)) > height(right(right))) {
+                putLong(current + RIGHT, rotateRight(writable(right)));
+            }
+            return rotateLeft(current);
+        }
+        return current;
+    }
+
+    private long rotateLeft(long current) {
+        long y = writable(right(current));
+        putLong(current + RIGHT, left(y));
+        putLong(y + LEFT, current);
+        update(current);
+        update(y);
+        return y;
+    }
+
+    private long rotateRight(long current) {
+        long y = writable(left(current));
+        putLong(current + LEFT, right(y));
+        putLong(y + RIGHT, current);
+        update(current);
+        update(y);
+        return y;
+    }
+
+    private void update(long node) {
+        putInt(node + HEIGHT, 1 + Math.max(height(left(node)), height(right(node))));
+    }
+
+    private long findNode(long key) {
+        long current = root;
+        while (current != NIL) {
+            long data = key(current);
+            if (key < data) {
+                current = left(current);
+            } else if (key > data) {
+                current = right(current);
+            } else {
+                return current;
+            }
+        }
+        return NIL;
+    }
+
+    /**
+     * @return the node itself if it was appended after the last commit, otherwise an appended copy
+     */
+    private long writable(long node) {
+        if (node >= committedEnd) {
+            return node;
+        }
+        long copy = append();
+        for (int i = 0; i < NODE_SIZE; i += 8) {
+            putLong(copy + i, getLong(node + i));
+        }
+        return copy;
+    }
+
+    private long allocate(long key, long value) {
+        long node = append();
+        putLong(node + KEY, key);
+        putLong(node + VALUE, value);
+        putLong(node + LEFT, NIL);
+        putLong(node + RIGHT, NIL);
+        putInt(node + HEIGHT, 1);
+        return node;
+    }
+
+    private long append() {
+        // nodes never cross a region boundary
+        if ((end >>> REGION_SHIFT) != ((end + NODE_SIZE - 1) >>> REGION_SHIFT)) {
+            end = (end + REGION_SIZE - 1) & -REGION_SIZE;
+        }
+        long node = end;
+        end += NODE_SIZE;
+        return node;
+    }
+
+    private long committedRoot() {
+        return getLong((generation & 1) * HEADER_SLOT_SIZE + 16);
+    }
+
+    private void writeHeader() {
+        long slot = (generation & 1) * HEADER_SLOT_SIZE;
+        long[] fields = {MAGIC, generation, root, size, end};
+        for (int i = 0; i < HEADER_FIELDS; i++) {
+            putLong(slot + i * 8, fields[i]);
+        }
+        putLong(slot + HEADER_FIELDS * 8, checksum(fields));
+    }
+
+    /**
+     * Reads both header slots with a plain read, since mapping a region of a file that turns out not
+     * to be a tree would extend it, and opens the tree at the newest valid one
+     */
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DATA_START).order(ByteOrder.LITTLE_ENDIAN);
+        // bytes past the end of a short file stay zero and fail the magic check
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header, header.position());
+        }
+        long[] best = null;
+        for (int slot = 0; slot < 2; slot++) {
+            long[] fields = new long[HEADER_FIELDS];
+            for (int i = 0; i < HEADER_FIELDS; i++) {
+                fields[i] = header.getLong(slot * HEADER_SLOT_SIZE + i * 8);
+            }
+            boolean valid = fields[0] == MAGIC
+                    && header.getLong(slot * HEADER_SLOT_SIZE + HEADER_FIELDS * 8) == checksum(fields);
+            if (valid && (best == null || fields[1] > best[1])) {
+                best = fields;
+            }
+        }
+        if (best == null) {
+            throw new IOException("Not a tree file or both headers are corrupt");
+        }
+        generation = best[1];
+        root = best[2];
+        size = best[3];
+        end = best[4];
+        committedEnd = end;
+    }
+
+    private static long checksum(long[] fields) {
+        CRC32 crc = new CRC32();
+        for (long field : fields) {
+            for (int i = 0; i < 8; i++) {
+                crc.update((int) (field >>> (i * 8)));
+            }
+        }
+        return crc.getValue();
+    }
+
+    private void checkOpen() {
+        if (regions == null) {
+            throw new IllegalStateException("The tree is closed");
+        }
+    }
+
+    private long key(long node) {
+        return getLong(node + KEY);
+    }
+
+    private long left(long node) {
+        return getLong(node + LEFT);
+    }
+
+    private long right(long node) {
+        return getLong(node + RIGHT);
+    }
+
+    private int height(long node) {
+        return node == NIL ? 0 : getInt(node + HEIGHT);
+    }
+
+    private int getInt(long position) {
+        return region((int) (position >>> REGION_SHIFT)).getInt((int) (position & (REGION_SIZE - 1)));
+    }
+
+    private long getLong(long position) {
+        return region((int) (position >>> REGION_SHIFT)).getLong((int) (position & (REGION_SIZE - 1)));
+    }
+
+    private void putLong(long position, long value) {
+        region((int) (position >>> REGION_SHIFT)).putLong((int) (position & (REGION_SIZE - 1)), value);
+    }
+
+    private void putInt(long position, int value) {
+        region((int) (position >>> REGION_SHIFT)).putInt((int) (position & (REGION_SIZE - 1)), value);
+    }
+
+    private MappedByteBuffer region(int index) {
+        if (index >= regions.length) {
+            regions = Arrays.copyOf(regions, Math.max(regions.length * 2, index + 1));
+        }
+        MappedByteBuffer region = regions[index];
+        if (region == null) {
+            try {
+                // mapping past the end of the file extends it
+                region = channel.map(FileChannel.MapMode.READ_WRITE, index * REGION_SIZE, REGION_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map region " + index, e);
+            }
+            region.order(ByteOrder.LITTLE_ENDIAN);
+            regions[index] = region;
+        }
+        return region;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ui.dsa.tree;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Spliterator;
+
+/**
+ * Operations of a sorted tree that {@link RangeView} is built on
+ *
+ * @param <E> - data type of nodes
+ */
+interface NavigableTree<E extends Comparable<E>> {
+
+    /**
+     * Ordering of the elements, null for their natural ordering
+     */
+    Comparator<? super E> comparator();
+
+    boolean isEmpty();
+
+    boolean contains(E data);
+
+    E min();
+
+    E max();
+
+    boolean insert(E data);
+
+    boolean delete(E data);
+
+    E ceiling(E data);
+
+    E higher(E data);
+
+    E floor(E data);
+
+    E lower(E data);
+
+    /**
+     * Number of elements in the range; a null bound means the range is open on that side
+     */
+    int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive);
+
+    /**
+     * In-order traversal of the elements in the range; a null bound means the range is open on that side
+     */
+    Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive);
+
+    Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive);
+}
@@ -0,0 +1,482 @@
+package com.ui.dsa.tree;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Red black tree of {@code long} keys with {@code long} payloads, stored outside the Java heap
+ * <p>
+ * Nodes are fixed-width records in direct buffers ("slabs") of {@value #SLAB_NODES} nodes each:
+ * <pre>
+ *  0  key     long
+ *  8  value   long
+ * 16  left    int   node index, 0 if none
+ * 20  right   int
+ * 24  parent  int
+ * 28  color   int   1 if red
+ * </pre>
+ * The garbage collector sees one buffer object per slab instead of one object per element. Slots of
+ * deleted nodes are chained into a free list through {@code left}. {@code int} keys and payloads are
+ * stored widened to {@code long}.
+ * <p>
+ * {@link #close()} frees all slabs; the tree cannot be used afterwards.
+ */
+public class OffHeapLongRBTree implements AutoCloseable {
+
+    private static final int NIL = 0;
+
+    private static final int NODE_SIZE = 32;
+    private static final int KEY = 0;
+    private static final int VALUE = 8;
+    private static final int LEFT = 16;
+    private static final int RIGHT = 20;
+    private static final int PARENT = 24;
+    private static final int COLOR = 28;
+
+    private static final int SLAB_SHIFT = 16;
+    private static final int SLAB_NODES = 1 << SLAB_SHIFT;
+    private static final int SLAB_MASK = SLAB_NODES - 1;
+
+    // sun.misc.Unsafe.invokeCleaner frees a direct buffer immediately (JDK 9+)
+    private static final Object UNSAFE = findUnsafe();
+    private static final Method INVOKE_CLEANER = findInvokeCleaner();
+
+    private ByteBuffer[] slabs;
+    private int slabCount;
+
+    private int root;
+    private int size;
+    // first never used slot
+    private int next;
+    // head of the chain of deleted slots
+    private int free;
+
+    public OffHeapLongRBTree() {
+        slabs = new ByteBuffer[4];
+        slabCount = 0;
+        root = NIL;
+        size = 0;
+        // slot 0 is the null node
+        next = 1;
+        free = NIL;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return bytes of off-heap memory held by the tree
+     */
+    public long memoryUsed() {
+        return (long) slabCount * SLAB_NODES * NODE_SIZE;
+    }
+
+    /**
+     * Inserts the key with the value, or replaces the value if the key already exists
+     *
+     * @return true if the key was not in the tree before
+     */
+    public boolean insert(long key, long value) {
+        checkOpen();
+        if (root == NIL) {
+            root = allocate(key, value);
+            setRed(root, false);
+            size++;
+            return true;
+        }
+        int current = root;
+        boolean toLeft;
+        while (true) {
+            long data = key(current);
+            if (key == data) {
+                setValue(current, value);
+                return false;
+            }
+            toLeft = key < data;
+            int child = toLeft ? left(current) : right(current);
+            if (child == NIL) {
+                break;
+            }
+            current = child;
+        }
+        int node = allocate(key, value);
+        setParent(node, current);
+        if (toLeft) {
+            setLeft(current, node);
+        } else {
+            setRight(current, node);
+        }
+        size++;
+        fixAfterInsert(node);
+        return true;
+    }
+
+    public boolean delete(long key) {
+        checkOpen();
+        int current = findNode(key);
+        if (current == NIL) {
+            return false;
+        }
+        // if the node has 2 children, move the predecessor into it and remove the predecessor
+        if (left(current) != NIL && right(current) != NIL) {
+            int pred = left(current);
+            while (right(pred) != NIL) {
+                pred = right(pred);
+            }
+            setKey(current, key(pred));
+            setValue(current, value(pred));
+            current = pred;
+        }
+        int child = left(current) != NIL ? left(current) : right(current);
+        if (child != NIL) {
+            replace(current, child);
+            setRed(child, false);
+        } else if (parent(current) == NIL) {
+            root = NIL;
+        } else {
+            if (!isRed(current)) {
+                fixAfterDelete(current);
+            }
+            replace(current, NIL);
+        }
+        release(current);
+        size--;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        checkOpen();
+        return findNode(key) != NIL;
+    }
+
+    /**
+     * Finds the value of the key
+     *
+     * @param key          - key to look up
+     * @param missingValue - value to return if the key is not in the tree
+     * @return the value of the key, or missingValue
+     */
+    public long find(long key, long missingValue) {
+        checkOpen();
+        int node = findNode(key);
+        return node == NIL ? missingValue : value(node);
+    }
+
+    /**
+     * Finds the minimum key in a tree
+     *
+     * @return - the minimum found key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long min() {
+        checkOpen();
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        int current = root;
+        while (left(current) != NIL) {
+            current = left(current);
+        }
+        return key(current);
+    }
+
+    /**
+     * Finds the maximum key in a tree
+     *
+     * @return - the maximum found key
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public long max() {
+        checkOpen();
+        if (root == NIL) {
+            throw new NoSuchElementException();
+        }
+        int current = root;
+        while (right(current) != NIL) {
+            current = right(current);
+        }
+        return key(current);
+    }
+
+    /**
+     * Frees all off-heap slabs right away through the buffers' cleaners. If the JDK does not
+     * expose them, the memory is returned once the dropped slabs are garbage collected
+     */
+    @Override
+    public void close() {
+        if (slabs != null) {
+            for (int i = 0; i < slabCount; i++) {
+                free(slabs[i]);
+            }
+            Arrays.fill(slabs, null);
+            slabs = null;
+            slabCount = 0;
+            root = NIL;
+            size = 0;
+        }
+    }
+
+    private static void free(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException e) {
+            // leave the buffer to the garbage collector
+        }
+    }
+
+    private static Object findUnsafe() {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method findInvokeCleaner() {
+        try {
+            return UNSAFE == null ? null : UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private void checkOpen() {
+        if (slabs == null) {
+            throw new IllegalStateException("The tree is closed");
+        }
+    }
+
+    private int findNode(long key) {
+        int current = root;
+        while (current != NIL) {
+            long data = key(current);
+            if (key < data) {
+                current = left(current);
+            } else if (key > data) {
+                current = right(current);
+            } else {
+                return current;
+            }
+        }
+        return NIL;
+    }
+
+    private void fixAfterInsert(int current) {
+        while (isRed(parent(current))) {
+            int p = parent(current);
+            int gp = parent(p);
+            int uncle = p == left(gp) ? right(gp) : left(gp);
+            if (isRed(uncle)) {
+                setRed(p, false);
+                setRed(uncle, false);
+                setRed(gp, true);
+                current = gp;
+            } else {
+                if (current == right(p) && p == left(gp)) {
+                    rotateLeft(p);
+                    current = p;
+                } else if (current == left(p) && p == right(gp)) {
+                    rotateRight(p);
+                    current = p;
+                }
+                p = parent(current);
+                setRed(p, false);
+                setRed(gp, true);
+                if (current == left(p)) {
+                    rotateRight(gp);
+                } else {
+                    rotateLeft(gp);
+                }
+            }
+        }
+        setRed(root, false);
+    }
+
+    private void fixAfterDelete(int current) {
+        while (current != root && !isRed(current)) {
+            int p = parent(current);
+            boolean isLeft = current == left(p);
+            int sibling = isLeft ? right(p) : left(p);
+            if (isRed(sibling)) {
+                setRed(sibling, false);
+                setRed(p, true);
+                if (isLeft) {
+                    rotateLeft(p);
+                    sibling = right(p);
+                } else {
+                    rotateRight(p);
+                    sibling = left(p);
+                }
+            }
+            if (!isRed(left(sibling)) && !isRed(right(sibling))) {
+                setRed(sibling, true);
+                current = p;
+            } else {
+                if (isLeft && !isRed(right(sibling))) {
+                    setRed(left(sibling), false);
+                    setRed(sibling, true);
+                    rotateRight(sibling);
+                    sibling = right(p);
+                } else if (!isLeft && !isRed(left(sibling))) {
+                    setRed(right(sibling), false);
+                    setRed(sibling, true);
+                    rotateLeft(sibling);
+                    sibling = left(p);
+                }
+                setRed(sibling, isRed(p));
+                setRed(p, false);
+                if (isLeft) {
+                    setRed(right(sibling), false);
+                    rotateLeft(p);
+                } else {
+                    setRed(left(sibling), false);
+                    rotateRight(p);
+                }
+                current = root;
+            }
+        }
+        setRed(current, false);
+    }
+
+    private void rotateLeft(int current) {
+        int r = right(current);
+        setRight(current, left(r));
+        if (left(r) != NIL) {
+            setParent(left(r), current);
+        }
+        replace(current, r);
+        setLeft(r, current);
+        setParent(current, r);
+    }
+
+    private void rotateRight(int current) {
+        int l = left(current);
+        setLeft(current, right(l));
+        if (right(l) != NIL) {
+            setParent(right(l), current);
+        }
+        replace(current, l);
+        setRight(l, current);
+        setParent(current, l);
+    }
+
+    private void replace(int current, int child) {
+        int p = parent(current);
+        if (p == NIL) {
+            root = child;
+        } else if (left(p) == current) {
+            setLeft(p, child);
+        } else {
+            setRight(p, child);
+        }
+        if (child != NIL) {
+            setParent(child, p);
+        }
+    }
+
+    private int allocate(long key, long value) {
+        int node;
+        if (free != NIL) {
+            node = free;
+            free = left(node);
+        } else {
+            if ((next >>> SLAB_SHIFT) == slabCount) {
+                addSlab();
+            }
+            node = next++;
+        }
+        setKey(node, key);
+        setValue(node, value);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        setParent(node, NIL);
+        setRed(node, true);
+        return node;
+    }
+
+    private void release(int node) {
+        setRight(node, NIL);
+        setParent(node, NIL);
+        setRed(node, false);
+        setLeft(node, free);
+        free = node;
+    }
+
+    private void addSlab() {
+        if (slabCount == slabs.length) {
+            slabs = Arrays.copyOf(slabs, slabs.length * 2);
+        }
+        slabs[slabCount++] = ByteBuffer.allocateDirect(SLAB_NODES * NODE_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer slab(int node) {
+        return slabs[node >>> SLAB_SHIFT];
+    }
+
+    private int offset(int node) {
+        return (node & SLAB_MASK) * NODE_SIZE;
+    }
+
+    private long key(int node) {
+        return slab(node).getLong(offset(node) + KEY);
+    }
+
+    private long value(int node) {
+        return slab(node).getLong(offset(node) + VALUE);
+    }
+
+    private int left(int node) {
+        return slab(node).getInt(offset(node) + LEFT);
+    }
+
+    private int right(int node) {
+        return slab(node).getInt(offset(node) + RIGHT);
+    }
+
+    private int parent(int node) {
+        return slab(node).getInt(offset(node) + PARENT);
+    }
+
+    private boolean isRed(int node) {
+        // the null node is never written, so it stays black
+        return node != NIL && slab(node).getInt(offset(node) + COLOR) != 0;
+    }
+
+    private void setKey(int node, long key) {
+        slab(node).putLong(offset(node) + KEY, key);
+    }
+
+    private void setValue(int node, long value) {
+        slab(node).putLong(offset(node) + VALUE, value);
+    }
+
+    private void setLeft(int node, int left) {
+        slab(node).putInt(offset(node) + LEFT, left);
+    }
+
+    private void setRight(int node, int right) {
+        slab(node).putInt(offset(node) + RIGHT, right);
+    }
+
+    private void setParent(int node, int parent) {
+        slab(node).putInt(offset(node) + PARENT, parent);
+    }
+
+    private void setRed(int node, boolean red) {
+        slab(node).putInt(offset(node) + COLOR, red ? 1 : 0);
+    }
+}
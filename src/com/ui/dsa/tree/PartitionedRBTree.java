@@ -0,0 +1,209 @@
+package com.ui.dsa.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Thread-safe red black tree split into key ranges for write-heavy sharing
+ * <p>
+ * The keys are divided by sorted split points into ranges, and each range is held by its own
+ * {@link ConcurrentRBTree} shard with its own lock. Shard {@code i} holds the elements from split
+ * point {@code i - 1}, inclusive, to split point {@code i}, exclusive. Writers of different ranges
+ * never wait for each other, and readers take no lock at all. Finding the shard is a binary search
+ * over the split points.
+ * <p>
+ * Writes only scale if they spread over the shards, so the split points should follow the key
+ * distribution; {@link #fromSample} takes them from a sample of the keys. Iteration goes through
+ * the shards in order and is weakly consistent like the iteration of a single shard.
+ *
+ * @param <E> - data type of nodes
+ */
+public class PartitionedRBTree<E extends Comparable<E>> implements Iterable<E> {
+
+    private final Object[] splitPoints;
+    private final ConcurrentRBTree<E>[] shards;
+
+    /**
+     * @param splitPoints - strictly ascending bounds between the shards, one less than the shards
+     * @throws IllegalArgumentException if the split points are not strictly ascending
+     */
+    @SuppressWarnings("unchecked")
+    public PartitionedRBTree(E[] splitPoints) {
+        for (int i = 1; i < splitPoints.length; i++) {
+            if (splitPoints[i - 1].compareTo(splitPoints[i]) >= 0) {
+                throw new IllegalArgumentException("Split points are not strictly ascending at index " + i);
+            }
+        }
+        this.splitPoints = Arrays.copyOf(splitPoints, splitPoints.length, Object[].class);
+        this.shards = (ConcurrentRBTree<E>[]) new ConcurrentRBTree<?>[splitPoints.length + 1];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ConcurrentRBTree<>();
+        }
+    }
+
+    /**
+     * Creates a tree whose split points are the quantiles of a sample of the keys, so that the
+     * sampled keys are spread evenly over the shards
+     *
+     * @param sample     - keys drawn from the expected distribution
+     * @param shardCount - wanted number of shards, fewer if the sample has too few distinct keys
+     * @return the new empty tree
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Comparable<E>> PartitionedRBTree<E> fromSample(Collection<? extends E> sample, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Illegal shard count: " + shardCount);
+        }
+        List<E> sorted = new ArrayList<>(sample);
+        sorted.sort(null);
+        List<E> splitPoints = new ArrayList<>();
+        for (int i = 1; i < shardCount && !sorted.isEmpty(); i++) {
+            E point = sorted.get((int) ((long) i * sorted.size() / shardCount));
+            // skip repeated quantiles of a skewed sample
+            if (splitPoints.isEmpty() || splitPoints.get(splitPoints.size() - 1).compareTo(point) < 0) {
+                splitPoints.add(point);
+            }
+        }
+        return new PartitionedRBTree<>((E[]) splitPoints.toArray(new Comparable<?>[0]));
+    }
+
+    /**
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        return shard(data).insert(data);
+    }
+
+    /**
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        return shard(data).delete(data);
+    }
+
+    public boolean contains(E data) {
+        return shard(data).contains(data);
+    }
+
+    /**
+     * Finds the element equal to the data without locking
+     *
+     * @return the element stored in the tree, or null if there is none
+     */
+    public E find(E data) {
+        return shard(data).find(data);
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        for (ConcurrentRBTree<E> shard : shards) {
+            E min = shard.first();
+            if (min != null) {
+                return min;
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            E max = shards[i].last();
+            if (max != null) {
+                return max;
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    /**
+     * @return the sum of the shard sizes, each read at a different moment
+     */
+    public int size() {
+        int size = 0;
+        for (ConcurrentRBTree<E> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (ConcurrentRBTree<E> shard : shards) {
+            if (!shard.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Returns a weakly consistent in-order iterator that goes through the shards in order
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int shard = 0;
+            private Iterator<E> current = shards[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (++shard == shards.length) {
+                        shard--;
+                        return false;
+                    }
+                    current = shards[shard].iterator();
+                }
+                return true;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    /**
+     * Finds the shard of the data by a binary search over the split points
+     */
+    @SuppressWarnings("unchecked")
+    private ConcurrentRBTree<E> shard(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        int low = 0;
+        int high = splitPoints.length;
+        // the shard is the number of split points less than or equal to the data
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (((E) splitPoints[middle]).compareTo(data) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return shards[low];
+    }
+}
@@ -0,0 +1,452 @@
+package com.ui.dsa.tree;
+
+import com.ui.dsa.tree.enumerations.RBTreeColor;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+
+import static com.ui.dsa.tree.enumerations.RBTreeColor.BLACK;
+import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
+
+/**
+ * Immutable red black tree with path copying
+ * <p>
+ * {@link #insert} and {@link #delete} leave the tree unchanged and return a new tree that shares every
+ * node off the path to the changed element, so a write allocates O(log n) nodes and any tree value is
+ * a consistent snapshot that costs nothing to keep. A tree can be read by any number of threads while
+ * a writer builds newer versions, for example behind an {@link java.util.concurrent.atomic.AtomicReference}.
+ * <p>
+ * Insertion follows Okasaki's balancing, and deletion follows Kahrs' algorithm, which rebalances by
+ * recoloring and restructuring on the way back up instead of with parent pointers.
+ *
+ * @param <E> - data type of nodes
+ */
+public final class PersistentRBTree<E extends Comparable<E>> implements Iterable<E> {
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentRBTree EMPTY = new PersistentRBTree<>(null, 0);
+
+    // returned by a delete that did not find the element, so nothing is copied
+    @SuppressWarnings("rawtypes")
+    private static final Node ABSENT = new Node<>(BLACK, null, null, null);
+
+    private final Node<E> root;
+    private final int size;
+
+    private PersistentRBTree(Node<E> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return the empty tree
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Comparable<E>> PersistentRBTree<E> empty() {
+        return (PersistentRBTree<E>) EMPTY;
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> PersistentRBTree<E> fromSorted(E[] data) {
+        return fromSorted(Arrays.asList(data).iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> PersistentRBTree<E> fromSorted(List<? extends E> data) {
+        return fromSorted(data.iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> PersistentRBTree<E> fromSorted(Iterator<? extends E> data) {
+        List<E> sorted = SortedInput.distinct(data);
+        if (sorted.isEmpty()) {
+            return empty();
+        }
+        // depth of the deepest, possibly incomplete level
+        int redDepth = 31 - Integer.numberOfLeadingZeros(sorted.size());
+        return new PersistentRBTree<>(build(sorted, 0, sorted.size() - 1, 0, redDepth), sorted.size());
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a tree with the data added, copying only the path to it
+     *
+     * @return the new tree, or this tree if the element is already in it
+     */
+    public PersistentRBTree<E> insert(E data) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        Node<E> node = insert(root, data);
+        if (node == root) {
+            return this;
+        }
+        return new PersistentRBTree<>(blacken(node), size + 1);
+    }
+
+    /**
+     * Returns a tree with the data removed, copying only the path to it
+     *
+     * @return the new tree, or this tree if the element is not in it
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentRBTree<E> delete(E data) {
+        Node<E> node = delete(root, data);
+        if (node == ABSENT) {
+            return this;
+        }
+        return size == 1 ? empty() : new PersistentRBTree<>(blacken(node), size - 1);
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the element equal to the data
+     *
+     * @return the element stored in the tree, or null if there is none
+     */
+    public E find(E data) {
+        Node<E> current = root;
+        while (current != null) {
+            int cmp = current.data.compareTo(data);
+            if (cmp > 0) {
+                current = current.left;
+            } else if (cmp < 0) {
+                current = current.right;
+            } else {
+                return current.data;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<E> current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.data;
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node<E> current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.data;
+    }
+
+    public int height() {
+        return findHeight(root) - 1;
+    }
+
+    /**
+     * Returns a lazy in-order iterator. The tree cannot change, so iteration never sees a write
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED}, {@code DISTINCT} and {@code SIZED}
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
+    private int findHeight(Node<E> node) {
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(findHeight(node.left), findHeight(node.right));
+    }
+
+    /**
+     * Inserts into the subtree. Below a black node a red-red violation is resolved by {@link #balance};
+     * below a red node it is passed up to the black parent
+     *
+     * @return the new subtree, or the same subtree if the element is already in it
+     */
+    private static <E extends Comparable<E>> Node<E> insert(Node<E> node, E data) {
+        if (node == null) {
+            return new Node<>(RED, null, data, null);
+        }
+        int cmp = node.data.compareTo(data);
+        if (cmp > 0) {
+            Node<E> left = insert(node.left, data);
+            if (left == node.left) {
+                return node;
+            }
+            return node.color == BLACK ? balance(left, node.data, node.right) : red(left, node.data, node.right);
+        } else if (cmp < 0) {
+            Node<E> right = insert(node.right, data);
+            if (right == node.right) {
+                return node;
+            }
+            return node.color == BLACK ? balance(node.left, node.data, right) : red(node.left, node.data, right);
+        }
+        // the element already exists
+        return node;
+    }
+
+    /**
+     * Deletes from the subtree. A subtree whose root was black comes back one black node short, which
+     * the parent repairs with {@link #balanceLeft} or {@link #balanceRight}
+     *
+     * @return the new subtree, or {@link #ABSENT} if the element is not in it
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Comparable<E>> Node<E> delete(Node<E> node, E data) {
+        if (node == null) {
+            return ABSENT;
+        }
+        int cmp = node.data.compareTo(data);
+        if (cmp > 0) {
+            Node<E> left = delete(node.left, data);
+            if (left == ABSENT) {
+                return ABSENT;
+            }
+            return isBlack(node.left) ? balanceLeft(left, node.data, node.right) : red(left, node.data, node.right);
+        } else if (cmp < 0) {
+            Node<E> right = delete(node.right, data);
+            if (right == ABSENT) {
+                return ABSENT;
+            }
+            return isBlack(node.right) ? balanceRight(node.left, node.data, right) : red(node.left, node.data, right);
+        }
+        return fuse(node.left, node.right);
+    }
+
+    /**
+     * Builds a black node, first resolving a red node with a red child directly below it
+     */
+    private static <E> Node<E> balance(Node<E> left, E data, Node<E> right) {
+        if (isRed(left) && isRed(right)) {
+            return red(black(left.left, left.data, left.right), data, black(right.left, right.data, right.right));
+        }
+        if (isRed(left)) {
+            if (isRed(left.left)) {
+                return red(black(left.left.left, left.left.data, left.left.right), left.data, black(left.right, data, right));
+            }
+            if (isRed(left.right)) {
+                return red(black(left.left, left.data, left.right.left), left.right.data, black(left.right.right, data, right));
+            }
+        }
+        if (isRed(right)) {
+            if (isRed(right.right)) {
+                return red(black(left, data, right.left), right.data, black(right.right.left, right.right.data, right.right.right));
+            }
+            if (isRed(right.left)) {
+                return red(black(left, data, right.left.left), right.left.data, black(right.left.right, right.data, right.right));
+            }
+        }
+        return black(left, data, right);
+    }
+
+    /**
+     * Builds a node whose left subtree is one black node short of the right one
+     */
+    private static <E> Node<E> balanceLeft(Node<E> left, E data, Node<E> right) {
+        if (isRed(left)) {
+            return red(black(left.left, left.data, left.right), data, right);
+        }
+        if (isBlack(right)) {
+            return balance(left, data, red(right.left, right.data, right.right));
+        }
+        if (isRed(right) && isBlack(right.left)) {
+            return red(black(left, data, right.left.left), right.left.data,
+                    balance(right.left.right, right.data, redden(right.right)));
+        }
+        throw new IllegalStateException("Red black invariant violated");
+    }
+
+    /**
+     * Builds a node whose right subtree is one black node short of the left one
+     */
+    private static <E> Node<E> balanceRight(Node<E> left, E data, Node<E> right) {
+        if (isRed(right)) {
+            return red(left, data, black(right.left, right.data, right.right));
+        }
+        if (isBlack(left)) {
+            return balance(red(left.left, left.data, left.right), data, right);
+        }
+        if (isRed(left) && isBlack(left.right)) {
+            return red(balance(redden(left.left), left.data, left.right.left), left.right.data,
+                    black(left.right.right, data, right));
+        }
+        throw new IllegalStateException("Red black invariant violated");
+    }
+
+    /**
+     * Joins the two subtrees of a deleted node, all elements of the left one being less
+     */
+    private static <E> Node<E> fuse(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (isRed(left) && isRed(right)) {
+            Node<E> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return red(red(left.left, left.data, middle.left), middle.data, red(middle.right, right.data, right.right));
+            }
+            return red(left.left, left.data, red(middle, right.data, right.right));
+        }
+        if (isBlack(left) && isBlack(right)) {
+            Node<E> middle = fuse(left.right, right.left);
+            if (isRed(middle)) {
+                return red(black(left.left, left.data, middle.left), middle.data, black(middle.right, right.data, right.right));
+            }
+            return balanceLeft(left.left, left.data, black(middle, right.data, right.right));
+        }
+        if (isRed(right)) {
+            return red(fuse(left, right.left), right.data, right.right);
+        }
+        return red(left.left, left.data, fuse(left.right, right));
+    }
+
+    /**
+     * Builds a subtree from the middle of the range, children first. All null leaves are at depth
+     * redDepth or redDepth + 1, so coloring the nodes at redDepth red and all others black gives every
+     * path the same number of black nodes
+     */
+    private static <E> Node<E> build(List<E> sorted, int low, int high, int depth, int redDepth) {
+        if (low > high) {
+            return null;
+        }
+        int middle = (low + high) >>> 1;
+        Node<E> left = build(sorted, low, middle - 1, depth + 1, redDepth);
+        Node<E> right = build(sorted, middle + 1, high, depth + 1, redDepth);
+        return new Node<>(depth == redDepth && depth > 0 ? RED : BLACK, left, sorted.get(middle), right);
+    }
+
+    private static <E> Node<E> blacken(Node<E> node) {
+        return isRed(node) ? black(node.left, node.data, node.right) : node;
+    }
+
+    private static <E> Node<E> redden(Node<E> node) {
+        if (!isBlack(node)) {
+            throw new IllegalStateException("Red black invariant violated");
+        }
+        return red(node.left, node.data, node.right);
+    }
+
+    private static <E> Node<E> red(Node<E> left, E data, Node<E> right) {
+        return new Node<>(RED, left, data, right);
+    }
+
+    private static <E> Node<E> black(Node<E> left, E data, Node<E> right) {
+        return new Node<>(BLACK, left, data, right);
+    }
+
+    private static boolean isRed(Node<?> node) {
+        return node != null && node.color == RED;
+    }
+
+    /**
+     * @return true for a black node, false for a red node or a null leaf
+     */
+    private static boolean isBlack(Node<?> node) {
+        return node != null && node.color == BLACK;
+    }
+
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node<E>> {
+
+        Traversal() {
+            super(root, size, 2 * (32 - Integer.numberOfLeadingZeros(size + 1)));
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node<E> left(Node<E> node) {
+            return node.left;
+        }
+
+        @Override
+        Node<E> right(Node<E> node) {
+            return node.right;
+        }
+
+        @Override
+        E data(Node<E> node) {
+            return node.data;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node<E>> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    private static final class Node<E> {
+        final RBTreeColor color;
+        final Node<E> left;
+        final E data;
+        final Node<E> right;
+
+        Node(RBTreeColor color, Node<E> left, E data, Node<E> right) {
+            this.color = color;
+            this.left = left;
+            this.data = data;
+            this.right = right;
+        }
+    }
+}
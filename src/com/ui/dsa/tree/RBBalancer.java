@@ -0,0 +1,180 @@
+package com.ui.dsa.tree;
+
+import com.ui.dsa.tree.enumerations.RBTreeColor;
+
+import static com.ui.dsa.tree.enumerations.RBTreeColor.BLACK;
+import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
+
+/**
+ * Rebalancing of a red black tree with parent pointers after an insert or a delete
+ * <p>
+ * The fix-ups and rotations only relink nodes and change their colors, through the accessors a tree
+ * implements for its node type. A tree that keeps more per node, as {@link RBTree} does with its
+ * subtree sizes, heights and path lengths, updates it in {@link #rotated}, and can count recolors in
+ * {@link #setColor}.
+ *
+ * @param <N> - node type of the tree
+ */
+abstract class RBBalancer<N> {
+
+    abstract N left(N node);
+
+    abstract N right(N node);
+
+    abstract N parent(N node);
+
+    abstract void setLeft(N node, N child);
+
+    abstract void setRight(N node, N child);
+
+    abstract void setParent(N node, N parent);
+
+    abstract RBTreeColor color(N node);
+
+    abstract void setColor(N node, RBTreeColor color);
+
+    abstract N root();
+
+    /**
+     * Puts the child in the place of the node under the node's parent, or at the root
+     */
+    abstract void replace(N node, N child);
+
+    /**
+     * Called after a rotation moved the node one level down and its child up into its place
+     *
+     * @param down - the rotated node
+     * @param up   - its former child, now its parent
+     */
+    void rotated(N down, N up) {
+    }
+
+    /**
+     * Restores the red-black properties after a red node was attached as a leaf
+     */
+    void fixAfterInsert(N current) {
+        // case 2: tree is still valid when the parent is black
+        while (colorOf(parent(current)) == RED) {
+            N parent = parent(current);
+            N gp = parent(parent);
+            N uncle = parent == left(gp) ? right(gp) : left(gp);
+            // case 3: avoid 2 consecutive red nodes by recoloring
+            if (colorOf(uncle) == RED) {
+                setColor(parent, BLACK);
+                setColor(uncle, BLACK);
+                setColor(gp, RED);
+                current = gp;
+            }
+            // case 4: rotation
+            else {
+                if (current == right(parent) && parent == left(gp)) {
+                    rotateLeft(parent);
+                    current = parent;
+                } else if (current == left(parent) && parent == right(gp)) {
+                    rotateRight(parent);
+                    current = parent;
+                }
+                parent = parent(current);
+                setColor(parent, BLACK);
+                setColor(gp, RED);
+                if (current == left(parent)) {
+                    rotateRight(gp);
+                } else {
+                    rotateLeft(gp);
+                }
+            }
+        }
+        setColor(root(), BLACK);
+    }
+
+    /**
+     * Restores the red-black properties when the path through the node is one black node short. A
+     * black leaf being deleted is fixed while it is still attached
+     */
+    void fixAfterDelete(N current) {
+        while (current != root() && color(current) == BLACK) {
+            N parent = parent(current);
+            boolean left = current == left(parent);
+            N sibling = left ? right(parent) : left(parent);
+            // case 2: red sibling, rotate it above the parent
+            if (color(sibling) == RED) {
+                setColor(sibling, BLACK);
+                setColor(parent, RED);
+                if (left) {
+                    rotateLeft(parent);
+                    sibling = right(parent);
+                } else {
+                    rotateRight(parent);
+                    sibling = left(parent);
+                }
+            }
+            // case 3 and 4: black sibling with black children, move the missing black up
+            if (colorOf(left(sibling)) == BLACK && colorOf(right(sibling)) == BLACK) {
+                setColor(sibling, RED);
+                current = parent;
+            } else {
+                // case 5: the far child of the sibling is black, rotate the near red child above the sibling
+                if (left && colorOf(right(sibling)) == BLACK) {
+                    setColor(left(sibling), BLACK);
+                    setColor(sibling, RED);
+                    rotateRight(sibling);
+                    sibling = right(parent);
+                } else if (!left && colorOf(left(sibling)) == BLACK) {
+                    setColor(right(sibling), BLACK);
+                    setColor(sibling, RED);
+                    rotateLeft(sibling);
+                    sibling = left(parent);
+                }
+                // case 6: rotate the sibling above the parent
+                setColor(sibling, color(parent));
+                setColor(parent, BLACK);
+                if (left) {
+                    setColor(right(sibling), BLACK);
+                    rotateLeft(parent);
+                } else {
+                    setColor(left(sibling), BLACK);
+                    rotateRight(parent);
+                }
+                current = root();
+            }
+        }
+        setColor(current, BLACK);
+    }
+
+    /**
+     * Rotates the node down to the left, its right child takes its place
+     */
+    void rotateLeft(N current) {
+        N right = right(current);
+        N inner = left(right);
+        setRight(current, inner);
+        if (inner != null) {
+            setParent(inner, current);
+        }
+        replace(current, right);
+        setLeft(right, current);
+        setParent(current, right);
+        rotated(current, right);
+    }
+
+    /**
+     * Rotates the node down to the right, its left child takes its place
+     */
+    void rotateRight(N current) {
+        N left = left(current);
+        N inner = right(left);
+        setLeft(current, inner);
+        if (inner != null) {
+            setParent(inner, current);
+        }
+        replace(current, left);
+        setRight(left, current);
+        setParent(current, left);
+        rotated(current, left);
+    }
+
+    RBTreeColor colorOf(N node) {
+        // null leaves are black
+        return node == null ? BLACK : color(node);
+    }
+}
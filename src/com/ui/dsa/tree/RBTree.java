@@ -1,9 +1,22 @@
 package com.ui.dsa.tree;
 
 import com.ui.dsa.tree.enumerations.RBTreeColor;
+import com.ui.dsa.tree.metrics.TreeMetrics;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.ui.dsa.tree.enumerations.RBTreeColor.BLACK;
 import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
@@ -13,265 +26,396 @@ import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
  *
  * @param <E> - data type of nodes
  */
-public class RBTree<E extends Comparable<E>> {
+public class RBTree<E extends Comparable<E>> implements Iterable<E>, NavigableTree<E> {
 
+    // elements from which the two halves of a build or a set operation are processed in parallel
+    private static final int PARALLEL_GRAIN = 1 << 13;
+
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
     private Node root;
     private int size;
+    // metrics of the tree, null until enableMetrics is called
+    private TreeMetrics metrics;
+    // recently found nodes, null until enableFindCache is called
+    private FindCache<E, Node> findCache;
+    private final Balancer balancer = new Balancer();
 
     public RBTree() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public RBTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
         size = 0;
         root = null;
     }
 
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> RBTree<E> fromSorted(E[] data) {
+        return fromSorted(Arrays.asList(data).iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> RBTree<E> fromSorted(List<? extends E> data) {
+        return fromSorted(data.iterator());
+    }
+
+    /**
+     * Builds a height-balanced tree from sorted data in linear time. Duplicates are dropped
+     *
+     * @param data - elements in ascending order
+     * @return the new tree
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     */
+    public static <E extends Comparable<E>> RBTree<E> fromSorted(Iterator<? extends E> data) {
+        List<E> sorted = SortedInput.distinct(data);
+        RBTree<E> tree = new RBTree<>();
+        if (!sorted.isEmpty()) {
+            // depth of the deepest, possibly incomplete level
+            int redDepth = 31 - Integer.numberOfLeadingZeros(sorted.size());
+            tree.root = tree.build(sorted, 0, sorted.size() - 1, 0, redDepth);
+            tree.size = sorted.size();
+        }
+        return tree;
+    }
+
+    /**
+     * Builds a height-balanced tree from data in any order. The data is sorted in parallel, and
+     * subtrees of at least {@value #PARALLEL_GRAIN} elements are built in parallel on the common
+     * {@link ForkJoinPool}. Duplicates are dropped
+     *
+     * @param data - elements in any order
+     * @return the new tree
+     * @throws NullPointerException if an element is null
+     */
+    public static <E extends Comparable<E>> RBTree<E> fromUnsorted(Collection<? extends E> data) {
+        RBTree<E> tree = new RBTree<>();
+        tree.insertAll(data);
+        return tree;
+    }
+
     public boolean isEmpty() {
         return size == 0;
     }
 
-    public void insert(E data) {
-        Node current = new Node(data);
+    /**
+     * Inserts the data with one descent from the root
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return insertData(data);
+        }
+        long start = System.nanoTime();
+        boolean inserted = insertData(data);
+        metrics.recordInsert(System.nanoTime() - start);
+        return inserted;
+    }
+
+    private boolean insertData(E data) {
         // case 1: if root
         if (root == null) {
-            root = current;
+            root = new Node(data);
             root.setColor(BLACK);
             size++;
-        } else if (find(data) == null) {
-            addLeaf(current);
-            // case 2: tree is still valid
-            if (getParent(current).getColor() == BLACK) {
-                // do nothing
-            } else {
-                Node uncle = getUncle(current);
-                Node parent = getParent(current);
-                Node gp = getGrandparent(current);
-                // case 3: avoid 2 consecutive red nodes
-                if ((uncle != null) && (uncle.getColor() == RED) && (parent.getColor() == (RED))) {
-                    parent.setColor(BLACK);
-                    uncle.setColor(BLACK);
-                    if (gp != root) {
-                        gp.setColor(RED);
-                    }
-                }
-                // case 4: rotation
-                else {
-                    if ((current == parent.getRight()) && (parent == gp.getLeft())) {
-                        rotateLeft(current);
-                        current = current.getLeft();
-                    } else if ((current == parent.getLeft()) && (parent == gp.getRight())) {
-                        rotateRight(current);
-                        current = current.getRight();
-                    }
-                    gp = getGrandparent(current);
-                    parent = getParent(current);
-                    parent.setColor(BLACK);
-                    gp.setColor(RED);
-                    if ((current == parent.getLeft()) && (parent == gp.getLeft())) {
-                        rotateRight(parent);
-                    } else {
-                        rotateLeft(parent);
-                    }
-                }
+            return true;
+        }
+        Node parent = root;
+        int cmp;
+        while (true) {
+            cmp = compare(parent.getData(), data);
+            if (cmp == 0) {
+                // the element already exists
+                return false;
+            }
+            Node next = cmp > 0 ? parent.getLeft() : parent.getRight();
+            if (next == null) {
+                break;
             }
+            parent = next;
+        }
+        Node current = new Node(data);
+        current.setParent(parent);
+        if (cmp > 0) {
+            parent.setLeft(current);
+        } else {
+            parent.setRight(current);
         }
+        size++;
+        // the new leaf is one level deeper below each ancestor than below the previous one
+        int distance = 1;
+        for (Node ancestor = parent; ancestor != null; ancestor = getParent(ancestor), distance++) {
+            ancestor.setSize(ancestor.getSize() + 1);
+            ancestor.setPathLength(ancestor.getPathLength() + distance);
+            ancestor.setHeight(Math.max(ancestor.getHeight(), distance + 1));
+        }
+        balancer.fixAfterInsert(current);
+        return true;
     }
 
+    /**
+     * Deletes the data with one descent from the root to the node and on to its predecessor
+     *
+     * @return true if the element was in the tree
+     */
     public boolean delete(E data) {
-        Node current = find(data);
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return deleteData(data);
+        }
+        long start = System.nanoTime();
+        boolean deleted = deleteData(data);
+        metrics.recordDelete(System.nanoTime() - start);
+        return deleted;
+    }
+
+    private boolean deleteData(E data) {
+        Node current = findNode(data);
         if (current == null) {
             return false;
         }
-        if (current.getLeft() == null && current.getRight() == null) {
-            deleteNode((E) current.getData());
-            return true;
+        if (findCache != null) {
+            findCache.remove(current.getData());
+        }
+        // if the node has 2 children, move the predecessor data into it and remove the predecessor
+        if (current.getLeft() != null && current.getRight() != null) {
+            Node pred = predecessor(current);
+            if (findCache != null) {
+                // the cached node of the predecessor data is the one about to be removed
+                findCache.remove(pred.getData());
+            }
+            current.setData(pred.getData());
+            current = pred;
         }
-        Node child;
-        if (current.getRight() == null) {
-            child = current.getLeft();
+        // now the node has at most one child
+        Node child = current.getLeft() != null ? current.getLeft() : current.getRight();
+        if (child != null) {
+            replace(current, child);
+            // a single child of a black node is always red
+            child.setColor(BLACK);
+        } else if (getParent(current) == null) {
+            root = null;
         } else {
-            child = current.getRight();
+            // a black leaf leaves its path one black node short: fix it while the leaf is still attached
+            if (current.getColor() == BLACK) {
+                balancer.fixAfterDelete(current);
+            }
+            replace(current, null);
         }
-        current.setData(child.getData());
-        deleteNode((E) child.getData());
-        if (current.getColor() == BLACK) {
-            if (child.getColor().equals(RED)) {
-                child.setColor(BLACK);
+        // the node leaves and the subtree of its child moves one level up
+        int moved = sizeOf(child);
+        int distance = 1;
+        boolean heightChanged = true;
+        for (Node ancestor = getParent(current); ancestor != null; ancestor = getParent(ancestor), distance++) {
+            ancestor.setSize(ancestor.getSize() - 1);
+            ancestor.setPathLength(ancestor.getPathLength() - distance - moved);
+            if (heightChanged) {
+                int height = 1 + Math.max(height(ancestor.getLeft()), height(ancestor.getRight()));
+                heightChanged = height != ancestor.getHeight();
+                ancestor.setHeight(height);
             }
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Inserts a batch of elements. The batch is sorted and built into a tree, which is merged with this
+     * one by {@link #union(RBTree, RBTree)} in O(m log(n / m + 1)) for m elements instead of m descents
+     *
+     * @return true if any element was not in the tree before
+     * @throws NullPointerException if an element is null
+     */
+    public boolean insertAll(Collection<? extends E> data) {
+        List<E> sorted = SortedInput.sort(data, comparator);
+        int oldSize = size;
+        setRoot(union(detach(), build(sorted)));
+        return size != oldSize;
+    }
+
+    /**
+     * Deletes a batch of elements. The batch is sorted and built into a tree, which is taken away from
+     * this one by {@link #difference(RBTree, RBTree)} in O(m log(n / m + 1)) for m elements instead of
+     * m descents
+     *
+     * @return true if any element was in the tree
+     * @throws NullPointerException if an element is null
+     */
+    public boolean deleteAll(Collection<? extends E> data) {
+        List<E> sorted = SortedInput.sort(data, comparator);
+        int oldSize = size;
+        setRoot(difference(detach(), build(sorted)));
+        return size != oldSize;
+    }
+
+    /**
+     * Merges two trees into a new one in O(m log(n / m + 1)), m being the size of the smaller tree.
+     * Both trees are consumed: their nodes are moved into the result and they are left empty. Where
+     * both trees hold equal elements, the element of the first one is kept. Subtrees of at least
+     * {@value #PARALLEL_GRAIN} elements are merged in parallel on the common {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in either tree
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> RBTree<E> union(RBTree<E> first, RBTree<E> second) {
+        RBTree<E> tree = new RBTree<>(ordering(first, second));
+        tree.setRoot(first == second ? first.detach() : tree.union(first.detach(), second.detach()));
+        return tree;
+    }
+
+    /**
+     * Intersects two trees into a new one in O(m log(n / m + 1)), m being the size of the smaller
+     * tree. Both trees are consumed and left empty. The elements of the first tree are kept. Subtrees
+     * of at least {@value #PARALLEL_GRAIN} elements are intersected in parallel on the common
+     * {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in both trees
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> RBTree<E> intersection(RBTree<E> first, RBTree<E> second) {
+        RBTree<E> tree = new RBTree<>(ordering(first, second));
+        tree.setRoot(first == second ? first.detach() : tree.intersection(first.detach(), second.detach()));
+        return tree;
+    }
+
+    /**
+     * Takes the elements of the second tree away from the first one into a new tree in
+     * O(m log(n / m + 1)), m being the size of the smaller tree. Both trees are consumed and left
+     * empty. Subtrees of at least {@value #PARALLEL_GRAIN} elements are processed in parallel on the
+     * common {@link ForkJoinPool}
+     *
+     * @return the tree of the elements in the first tree but not in the second one
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> RBTree<E> difference(RBTree<E> first, RBTree<E> second) {
+        RBTree<E> tree = new RBTree<>(ordering(first, second));
+        if (first == second) {
+            // a tree taken away from itself leaves nothing
+            first.detach();
         } else {
-            //case 1
-            if (getParent(current) != null) {
-                Node parent = getParent(current);
-                Node sibling = getSibling(current);
-                // case 2
-                if (sibling.getColor() == RED) {
-                    parent.setColor(RED);
-                    sibling.setColor(BLACK);
-                    if (current == parent.getLeft()) {
-                        rotateLeft(parent);
-                    } else {
-                        rotateRight(parent);
-                    }
-                }
-                //case 3
-                sibling = getSibling(current);
-                if ((parent.getColor().equals(BLACK))
-                        && (sibling.getColor().equals(BLACK))
-                        && (sibling.getLeft().getColor().equals(BLACK))
-                        && (sibling.getRight().getColor().equals(BLACK))) {
-                    sibling.setColor(RED);
-                    delete((E) getParent(current).getData());
-                } else {
-                    //case 4
-                    if ((getParent(current).getColor() == RED)
-                            && (sibling.getColor() == BLACK)
-                            && (sibling.getLeft().getColor() == BLACK)
-                            && (sibling.getRight().getColor() == BLACK)) {
-                        sibling.setColor(RED);
-                        getParent(current).setColor(BLACK);
-                    } else {
-                        //case 5
-                        if (sibling.getColor() == BLACK) {
-                            if ((current == getParent(current).getLeft())
-                                    && (sibling.getRight().getColor() == BLACK)
-                                    && (sibling.getLeft().getColor() == RED)) {
-                                sibling.setColor(RED);
-                                sibling.getLeft().setColor(BLACK);
-                                rotateRight(sibling);
-                            } else if ((current == getParent(current).getRight())
-                                    && (sibling.getLeft().getColor() == BLACK)
-                                    && (sibling.getRight().getColor() == RED)) {
-                                sibling.setColor(RED);
-                                sibling.getRight().setColor(BLACK);
-                                rotateLeft(sibling);
-                            }
-                        }
-                        //case 6
-                        sibling = getSibling(current);
-                        sibling.setColor(getParent(current).getColor());
-                        getParent(current).setColor(BLACK);
-                        if (current == getParent(current).getLeft()) {
-                            sibling.getRight().setColor(BLACK);
-                            rotateLeft(getParent(sibling));
-                        } else {
-                            sibling.getLeft().setColor(BLACK);
-                            rotateRight(getParent(current));
-                        }
-                    }
-                }
-            }
-            deleteNode((E) current.getData());
+            tree.setRoot(tree.difference(first.detach(), second.detach()));
         }
+        return tree;
+    }
 
-        return true;
+    /**
+     * Joins two trees around the data in O(log n). Both trees are consumed and left empty
+     *
+     * @param left  - tree of elements less than the data
+     * @param right - tree of elements greater than the data
+     * @return the tree of the elements of both trees and the data
+     * @throws IllegalArgumentException if the trees are not ordered around the data or are ordered by
+     *                                  different comparators
+     */
+    public static <E extends Comparable<E>> RBTree<E> join(RBTree<E> left, E data, RBTree<E> right) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        RBTree<E> tree = new RBTree<>(ordering(left, right));
+        if (!left.isEmpty() && tree.compare(left.max(), data) >= 0 || !right.isEmpty() && tree.compare(right.min(), data) <= 0) {
+            throw new IllegalArgumentException("Trees are not ordered around " + data);
+        }
+        tree.setRoot(tree.join(left.detach(), tree.new Node(data), right.detach()));
+        return tree;
     }
 
-    private void deleteNode(E data) {
-        if (!isEmpty()) {
-            Node current = find(data);
-            if (current != null) {
-                // if no children
-                if (current.getLeft() == null && current.getRight() == null) {
-                    if (getParent(current) == null) {
-                        root = null;
-                    } else {
-                        replace(current, null);
-                    }
-                }
-                // if only left child
-                else if (current.getLeft() != null && current.getRight() == null) {
-                    if (getParent(current) == null) {
-                        root = current.getLeft();
-                    } else {
-                        replace(current, current.getLeft());
-                    }
-                }
-                // if only right child
-                else if (current.getLeft() == null && current.getRight() != null) {
-                    if (getParent(current) == null) {
-                        root = current.getRight();
-                    } else {
-                        replace(current, current.getRight());
-                    }
-                }
-                // if the node has 2 children
-                else {
-                    Node pred = predecessor(current);
-                    delete((E) pred.getData());
-                    current.setData(pred.getData());
-                }
-                size--;
-            }
+    /**
+     * Joins two trees in O(log n). Both trees are consumed and left empty
+     *
+     * @param left  - tree of elements less than those of the right one
+     * @param right - tree of elements greater than those of the left one
+     * @return the tree of the elements of both trees
+     * @throws IllegalArgumentException if the trees overlap or are ordered by different comparators
+     */
+    public static <E extends Comparable<E>> RBTree<E> join(RBTree<E> left, RBTree<E> right) {
+        RBTree<E> tree = new RBTree<>(ordering(left, right));
+        if (!left.isEmpty() && !right.isEmpty() && tree.compare(left.max(), right.min()) >= 0) {
+            throw new IllegalArgumentException("Trees overlap");
         }
+        tree.setRoot(tree.join(left.detach(), right.detach()));
+        return tree;
     }
 
-    private void rotateLeft(Node current) {
-        Node gp = getGrandparent(current);
-        Node leftChild = current.getLeft();
-        Node parent;
-        if (gp == null) {
-            parent = getParent(current);
-            root = current;
-        } else if (gp.getData().compareTo(current.getData()) > 0) {
-            parent = gp.getLeft();
-            gp.setLeft(current);
-        } else {
-            parent = gp.getRight();
-            gp.setRight(current);
+    /**
+     * @return the common comparator of two trees that are combined
+     * @throws IllegalArgumentException if the trees are ordered by different comparators
+     */
+    private static <E extends Comparable<E>> Comparator<? super E> ordering(RBTree<E> first, RBTree<E> second) {
+        if (!Objects.equals(first.comparator, second.comparator)) {
+            throw new IllegalArgumentException("Trees are ordered by different comparators");
         }
-        current.setLeft(parent);
-        parent.setRight(leftChild);
+        return first.comparator;
     }
 
-    private void rotateRight(Node current) {
-        Node gp = getGrandparent(current);
-        Node rightChild = current.getRight();
-        Node parent;
-        if (gp == null) {
-            parent = getParent(current);
-            root = current;
-        } else if (gp.getData().compareTo(current.getData()) > 0) {
-            parent = gp.getLeft();
-            gp.setLeft(current);
-        } else {
-            parent = gp.getRight();
-            gp.setRight(current);
+    /**
+     * Splits the tree at the data in O(log n). This tree keeps the elements less than the data
+     *
+     * @return the tree of the elements greater than or equal to the data
+     */
+    public RBTree<E> split(E data) {
+        if (data == null) {
+            throw new NullPointerException();
         }
-        current.setRight(parent);
-        parent.setLeft(rightChild);
+        Split split = split(root, blackHeight(root), data);
+        RBTree<E> greater = new RBTree<E>(comparator);
+        greater.setRoot(split.found == null ? split.right : join(new Subtree(null, 0), split.found, split.right));
+        setRoot(split.left);
+        return greater;
     }
 
-    private void addLeaf(Node current) {
-        Node tmp = root;
-        if (find((E) current.getData()) == null) {
-            while (true) {
-                if (tmp.getData().compareTo(current.getData()) > 0) {
-                    if (tmp.getLeft() != null) {
-                        tmp = tmp.getLeft();
-                    } else {
-                        tmp.setLeft(current);
-                        size++;
-                        return;
-                    }
-                } else if (tmp.getData().compareTo(current.getData()) < 0) {
-                    if (tmp.getRight() != null) {
-                        tmp = tmp.getRight();
-                    } else {
-                        tmp.setRight(current);
-                        size++;
-                        return;
-                    }
-                } else return;
+    public Node find(E data) {
+        if (!TreeMetrics.ENABLED || metrics == null) {
+            return findCached(data);
+        }
+        long start = System.nanoTime();
+        Node found = findCached(data);
+        metrics.recordFind(System.nanoTime() - start);
+        return found;
+    }
+
+    /**
+     * Looks the data up in the find cache, if there is one, and descends from the root on a miss
+     */
+    private Node findCached(E data) {
+        if (findCache == null) {
+            return findNode(data);
+        }
+        Node found = findCache.get(data);
+        if (found == null) {
+            found = findNode(data);
+            if (found != null) {
+                findCache.put(found.getData(), found);
             }
         }
+        return found;
     }
 
-    public Node find(E data) {
+    private Node findNode(E data) {
         if (root != null) {
             Node current = root;
             while (true) {
-                if (current.getData().compareTo(data) > 0 && current.getLeft() != null) {
+                int cmp = compare(current.getData(), data);
+                if (cmp > 0 && current.getLeft() != null) {
                     current = current.getLeft();
-                } else if (current.getData().compareTo(data) < 0 && current.getRight() != null) {
+                } else if (cmp < 0 && current.getRight() != null) {
                     current = current.getRight();
-                } else if (current.getData().compareTo(data) == 0) {
+                } else if (cmp == 0) {
                     return current;
                 } else {
                     return null;
@@ -290,74 +434,770 @@ public class RBTree<E extends Comparable<E>> {
     }
 
     private Node getParent(Node child) {
-        if (root != null) {
-            Node current = root;
-            while (true) {
-                if (current.getLeft() != null && current.getLeft().getData().compareTo(child.getData()) == 0) {
-                    return current;
-                } else if (current.getRight() != null && current.getRight().getData().compareTo(child.getData()) == 0) {
-                    return current;
-                } else if (current.getLeft() != null && current.getData().compareTo(child.getData()) > 0) {
-                    current = current.getLeft();
-                } else if (current.getRight() != null) {
-                    current = current.getRight();
-                } else {
-                    return null;
-                }
-            }
+        return child.getParent();
+    }
+
+    /**
+     * Starts counting the operations, comparisons, rotations and recolors of the tree and recording
+     * the latencies of its inserts, deletes and finds
+     *
+     * @return the metrics of the tree, the same on every call
+     * @throws IllegalStateException if the JVM was started without the {@value TreeMetrics#PROPERTY} property
+     */
+    public TreeMetrics enableMetrics() {
+        if (metrics == null) {
+            metrics = new TreeMetrics();
         }
-        return null;
+        return metrics;
+    }
+
+    /**
+     * @return the metrics of the tree, null until they are enabled
+     */
+    public TreeMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Puts a bounded cache of recently found nodes in front of {@link #find} and {@link #contains}, so
+     * that repeated lookups of hot elements skip the descent. Elements need {@code equals} and
+     * {@code hashCode} consistent with the ordering of the tree to be cached. Replaces the previous
+     * cache, if any
+     *
+     * @param capacity - maximum number of cached nodes
+     * @return the new cache, which reports its hit ratio and memory use
+     * @throws IllegalArgumentException if the capacity is not positive or above 2^29
+     */
+    public FindCache<E, Node> enableFindCache(int capacity) {
+        findCache = new FindCache<>(capacity);
+        return findCache;
+    }
+
+    /**
+     * Removes the find cache, leaving finds to descend from the root
+     */
+    public void disableFindCache() {
+        findCache = null;
+    }
+
+    /**
+     * @return the find cache of the tree, null unless it is enabled
+     */
+    public FindCache<E, Node> findCache() {
+        return findCache;
     }
 
-    private Node getGrandparent(Node current) {
-        if ((current != null) && (getParent(current) != null)) {
-            return getParent(getParent(current));
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countComparison();
         }
-        return null;
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the root node, for the optimistic readers of {@link ConcurrentRBTree}
+     */
+    Node root() {
+        return root;
+    }
+
+    /**
+     * Puts the child in the place of the node under the node's parent
+     */
+    private void replace(Node current, Node child) {
+        Node parent = getParent(current);
+        if (parent == null) {
+            root = child;
+        } else if (parent.getLeft() == current) {
+            parent.setLeft(child);
+        } else {
+            parent.setRight(child);
+        }
+        if (child != null) {
+            child.setParent(parent);
+        }
+    }
+
+    private RBTreeColor colorOf(Node node) {
+        // null leaves are black
+        return node == null ? BLACK : node.getColor();
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getLeft() != null) {
+            current = current.getLeft();
+        }
+        return current.getData();
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getRight() != null) {
+            current = current.getRight();
+        }
+        return current.getData();
     }
 
-    private Node getUncle(Node current) {
-        Node gp = getGrandparent(current);
-        if (gp == null) {
-            return null; // no getGrandparent means no getUncle
+    /**
+     * Builds a subtree from the middle of the range down, the halves of large ranges in parallel. All
+     * null leaves are at depth redDepth or redDepth + 1, so coloring the nodes at redDepth red and all
+     * others black gives every path the same number of black nodes
+     */
+    private Node build(List<E> sorted, int low, int high, int depth, int redDepth) {
+        if (low > high) {
+            return null;
         }
-        if (getParent(current) == gp.getLeft()) {
-            return gp.getRight();
+        int middle = (low + high) >>> 1;
+        Node node = new Node(sorted.get(middle));
+        node.setColor(depth == redDepth && depth > 0 ? RED : BLACK);
+        Node left;
+        Node right;
+        if (high - low + 1 >= PARALLEL_GRAIN) {
+            ForkJoinTask<Node> task = ForkJoinTask.adapt(() -> build(sorted, low, middle - 1, depth + 1, redDepth)).fork();
+            right = build(sorted, middle + 1, high, depth + 1, redDepth);
+            left = task.join();
         } else {
-            return gp.getLeft();
+            left = build(sorted, low, middle - 1, depth + 1, redDepth);
+            right = build(sorted, middle + 1, high, depth + 1, redDepth);
         }
+        node.setLeft(left);
+        node.setRight(right);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        update(node);
+        return node;
     }
 
-    private Node getSibling(Node current) {
-        Node parent = getParent(current);
-        if (parent != null && parent.getLeft() == current) {
-            return parent.getRight();
-        } else if (parent != null) {
-            return parent.getLeft();
+    /**
+     * Merges two subtrees by splitting the first one at the root of the second one
+     */
+    private Subtree union(Subtree first, Subtree second) {
+        if (first.root == null) {
+            return second;
+        }
+        if (second.root == null) {
+            return first;
+        }
+        Node pivot = second.root;
+        Split split = split(first.root, first.blackHeight, pivot.getData());
+        Subtree less = leftOf(second);
+        Subtree greater = rightOf(second);
+        Subtree left;
+        Subtree right;
+        if (sizeOf(first.root) + sizeOf(pivot) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Subtree> task = ForkJoinTask.adapt(() -> union(split.left, less)).fork();
+            right = union(split.right, greater);
+            left = task.join();
         } else {
-            return null;
+            left = union(split.left, less);
+            right = union(split.right, greater);
         }
+        // keep the node of the first subtree
+        return join(left, split.found != null ? split.found : pivot, right);
     }
 
-    public int size() {
-        return size;
+    /**
+     * Intersects two subtrees by splitting the first one at the root of the second one
+     */
+    private Subtree intersection(Subtree first, Subtree second) {
+        if (first.root == null || second.root == null) {
+            return new Subtree(null, 0);
+        }
+        Node pivot = second.root;
+        Split split = split(first.root, first.blackHeight, pivot.getData());
+        Subtree less = leftOf(second);
+        Subtree greater = rightOf(second);
+        Subtree left;
+        Subtree right;
+        if (sizeOf(first.root) + sizeOf(pivot) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Subtree> task = ForkJoinTask.adapt(() -> intersection(split.left, less)).fork();
+            right = intersection(split.right, greater);
+            left = task.join();
+        } else {
+            left = intersection(split.left, less);
+            right = intersection(split.right, greater);
+        }
+        return split.found != null ? join(left, split.found, right) : join(left, right);
     }
 
-    private void replace(Node current, Node child) {
-        if (getParent(current).getData().compareTo(current.getData()) > 0)
-            getParent(current).setLeft(child);
-        else getParent(current).setRight(child);
+    /**
+     * Takes the second subtree away from the first one by splitting the first one at the root of the
+     * second one
+     */
+    private Subtree difference(Subtree first, Subtree second) {
+        if (first.root == null || second.root == null) {
+            return first;
+        }
+        Split split = split(first.root, first.blackHeight, second.root.getData());
+        Subtree less = leftOf(second);
+        Subtree greater = rightOf(second);
+        Subtree left;
+        Subtree right;
+        if (sizeOf(first.root) + sizeOf(second.root) >= PARALLEL_GRAIN) {
+            ForkJoinTask<Subtree> task = ForkJoinTask.adapt(() -> difference(split.left, less)).fork();
+            right = difference(split.right, greater);
+            left = task.join();
+        } else {
+            left = difference(split.left, less);
+            right = difference(split.right, greater);
+        }
+        return join(left, right);
+    }
+
+    /**
+     * Splits the subtree into the nodes less than the data, the node equal to it and the nodes greater
+     * than it. The nodes on the search path are joined back into the two parts
+     *
+     * @param blackHeight - black nodes on every path from the node down to a null leaf
+     */
+    private Split split(Node current, int blackHeight, E data) {
+        if (current == null) {
+            return new Split(new Subtree(null, 0), null, new Subtree(null, 0));
+        }
+        Subtree tree = new Subtree(current, blackHeight);
+        Subtree left = leftOf(tree);
+        Subtree right = rightOf(tree);
+        int cmp = compare(current.getData(), data);
+        if (cmp == 0) {
+            return new Split(left, current, right);
+        }
+        if (cmp > 0) {
+            Split split = split(left.root, left.blackHeight, data);
+            split.right = join(split.right, current, right);
+            return split;
+        }
+        Split split = split(right.root, right.blackHeight, data);
+        split.left = join(left, current, split.left);
+        return split;
+    }
+
+    /**
+     * Joins two subtrees with the middle node between them, all elements of the left subtree being less
+     * than the middle and all of the right one greater. The middle node goes down the spine of the
+     * subtree with more black height to where the black heights match, and red-red violations are
+     * rotated away on the way back up, which costs O(difference of the black heights)
+     */
+    private Subtree join(Subtree left, Node middle, Subtree right) {
+        if (left.blackHeight > right.blackHeight) {
+            Node joined = joinRight(left.root, left.blackHeight, middle, right);
+            if (joined.getColor() == RED && colorOf(joined.getRight()) == RED) {
+                joined.setColor(BLACK);
+                return new Subtree(joined, left.blackHeight + 1);
+            }
+            return new Subtree(joined, left.blackHeight);
+        }
+        if (right.blackHeight > left.blackHeight) {
+            Node joined = joinLeft(left, middle, right.root, right.blackHeight);
+            if (joined.getColor() == RED && colorOf(joined.getLeft()) == RED) {
+                joined.setColor(BLACK);
+                return new Subtree(joined, right.blackHeight + 1);
+            }
+            return new Subtree(joined, right.blackHeight);
+        }
+        if (colorOf(left.root) == BLACK && colorOf(right.root) == BLACK) {
+            link(middle, RED, left.root, right.root);
+            return new Subtree(middle, left.blackHeight);
+        }
+        link(middle, BLACK, left.root, right.root);
+        return new Subtree(middle, left.blackHeight + 1);
+    }
+
+    /**
+     * Attaches the middle node and the right subtree on the right spine of a subtree with more black height
+     *
+     * @return the new root of the subtree, possibly red with a red right child
+     */
+    private Node joinRight(Node current, int blackHeight, Node middle, Subtree right) {
+        if (colorOf(current) == BLACK && blackHeight == right.blackHeight) {
+            link(middle, RED, current, right.root);
+            return middle;
+        }
+        boolean black = current.getColor() == BLACK;
+        Node child = joinRight(current.getRight(), blackHeight - (black ? 1 : 0), middle, right);
+        link(current, current.getColor(), current.getLeft(), child);
+        if (black && colorOf(child) == RED && colorOf(child.getRight()) == RED) {
+            child.getRight().setColor(BLACK);
+            return rotateSubtreeLeft(current);
+        }
+        return current;
+    }
+
+    /**
+     * Attaches the left subtree and the middle node on the left spine of a subtree with more black height
+     *
+     * @return the new root of the subtree, possibly red with a red left child
+     */
+    private Node joinLeft(Subtree left, Node middle, Node current, int blackHeight) {
+        if (colorOf(current) == BLACK && blackHeight == left.blackHeight) {
+            link(middle, RED, left.root, current);
+            return middle;
+        }
+        boolean black = current.getColor() == BLACK;
+        Node child = joinLeft(left, middle, current.getLeft(), blackHeight - (black ? 1 : 0));
+        link(current, current.getColor(), child, current.getRight());
+        if (black && colorOf(child) == RED && colorOf(child.getLeft()) == RED) {
+            child.getLeft().setColor(BLACK);
+            return rotateSubtreeRight(current);
+        }
+        return current;
+    }
+
+    /**
+     * Joins two subtrees, all elements of the left subtree being less than those of the right one, by
+     * splitting the maximum off the left subtree and putting it between them
+     */
+    private Subtree join(Subtree left, Subtree right) {
+        if (left.root == null) {
+            return right;
+        }
+        if (right.root == null) {
+            return left;
+        }
+        Node max = left.root;
+        while (max.getRight() != null) {
+            max = max.getRight();
+        }
+        Split split = split(left.root, left.blackHeight, max.getData());
+        return join(split.left, split.found, right);
+    }
+
+    /**
+     * Rotates a detached subtree to the left
+     *
+     * @return the new root of the subtree
+     */
+    private Node rotateSubtreeLeft(Node current) {
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countRotation();
+        }
+        Node right = current.getRight();
+        link(current, current.getColor(), current.getLeft(), right.getLeft());
+        link(right, right.getColor(), current, right.getRight());
+        return right;
+    }
+
+    /**
+     * Rotates a detached subtree to the right
+     *
+     * @return the new root of the subtree
+     */
+    private Node rotateSubtreeRight(Node current) {
+        if (TreeMetrics.ENABLED && metrics != null) {
+            metrics.countRotation();
+        }
+        Node left = current.getLeft();
+        link(current, current.getColor(), left.getRight(), current.getRight());
+        link(left, left.getColor(), left.getLeft(), current);
+        return left;
+    }
+
+    /**
+     * Sets the color and the children of the node, with their parent links and the cached values
+     */
+    private void link(Node node, RBTreeColor color, Node left, Node right) {
+        node.setColor(color);
+        node.setLeft(left);
+        node.setRight(right);
+        if (left != null) {
+            left.setParent(node);
+        }
+        if (right != null) {
+            right.setParent(node);
+        }
+        update(node);
+    }
+
+    /**
+     * Makes the result of a set operation the whole tree. The find cache is dropped, the operation
+     * having relinked the nodes or left some of them out
+     */
+    private void setRoot(Subtree tree) {
+        if (findCache != null) {
+            findCache.clear();
+        }
+        root = tree.root;
+        if (root != null) {
+            root.setParent(null);
+            root.setColor(BLACK);
+        }
+        size = sizeOf(root);
+    }
+
+    /**
+     * Takes all nodes out of the tree, leaving it empty
+     *
+     * @return the former nodes of the tree
+     */
+    private Subtree detach() {
+        if (findCache != null) {
+            findCache.clear();
+        }
+        Subtree tree = new Subtree(root, blackHeight(root));
+        root = null;
+        size = 0;
+        return tree;
+    }
+
+    /**
+     * Builds a detached subtree from sorted distinct elements
+     */
+    private Subtree build(List<E> sorted) {
+        if (sorted.isEmpty()) {
+            return new Subtree(null, 0);
+        }
+        int redDepth = 31 - Integer.numberOfLeadingZeros(sorted.size());
+        // every level above the red one is black
+        return new Subtree(build(sorted, 0, sorted.size() - 1, 0, redDepth), Math.max(redDepth, 1));
+    }
+
+    private Subtree leftOf(Subtree tree) {
+        return new Subtree(tree.root.getLeft(), tree.blackHeight - (tree.root.getColor() == BLACK ? 1 : 0));
+    }
+
+    private Subtree rightOf(Subtree tree) {
+        return new Subtree(tree.root.getRight(), tree.blackHeight - (tree.root.getColor() == BLACK ? 1 : 0));
+    }
+
+    /**
+     * Counts the black nodes on the path from the node down its left spine
+     */
+    private int blackHeight(Node node) {
+        int blackHeight = 0;
+        for (; node != null; node = node.getLeft()) {
+            if (node.getColor() == BLACK) {
+                blackHeight++;
+            }
+        }
+        return blackHeight;
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the least element greater than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E ceiling(E data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the least element strictly greater than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E higher(E data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the greatest element less than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E floor(E data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the greatest element strictly less than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E lower(E data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Returns a live view of the elements from fromElement, inclusive, to toElement, exclusive
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements between fromElement and toElement
+     */
+    public SortedSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the elements less than toElement
+     */
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements less than, or equal to if inclusive, toElement
+     */
+    public SortedSet<E> headSet(E toElement, boolean inclusive) {
+        if (toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a live view of the elements greater than or equal to fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns a live view of the elements greater than, or equal to if inclusive, fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Finds the element nearest to the data in one direction with one descent
+     *
+     * @param above     - true to look for elements greater than the data, false for less
+     * @param inclusive - true if an element equal to the data is a match
+     */
+    private E nearest(E data, boolean above, boolean inclusive) {
+        Node current = root;
+        Node best = null;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0 && inclusive) {
+                return current.getData();
+            }
+            if (above ? cmp > 0 : cmp < 0) {
+                best = current;
+                current = above ? current.getLeft() : current.getRight();
+            } else {
+                current = above ? current.getRight() : current.getLeft();
+            }
+        }
+        return best == null ? null : best.getData();
+    }
+
+    /**
+     * Counts the elements strictly less than the data in O(log n)
+     *
+     * @return the number of elements less than the data
+     */
+    public int rank(E data) {
+        return countBelow(data, false);
+    }
+
+    /**
+     * Finds the k-th smallest element in O(log n)
+     *
+     * @param k - zero-based position of the element in ascending order
+     * @return the found element
+     * @throws IndexOutOfBoundsException if k is negative or not less than the size of the tree
+     */
+    public E select(int k) {
+        if (k < 0 || k >= size) {
+            throw new IndexOutOfBoundsException("k: " + k + ", size: " + size);
+        }
+        Node current = root;
+        while (true) {
+            int left = sizeOf(current.getLeft());
+            if (k < left) {
+                current = current.getLeft();
+            } else if (k > left) {
+                k -= left + 1;
+                current = current.getRight();
+            } else {
+                return current.getData();
+            }
+        }
+    }
+
+    /**
+     * Counts the elements between from and to, both inclusive, in O(log n)
+     */
+    public int countInRange(E from, E to) {
+        return countInRange(from, true, to, true);
+    }
+
+    /**
+     * Counts the elements in the range in O(log n)
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        int below = from == null ? 0 : countBelow(from, !fromInclusive);
+        int upTo = to == null ? size : countBelow(to, toInclusive);
+        return Math.max(0, upTo - below);
+    }
+
+    /**
+     * Counts the elements less than, or equal to if inclusive, the data with one descent
+     */
+    private int countBelow(E data, boolean inclusive) {
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp < 0 || (cmp == 0 && inclusive)) {
+                count += sizeOf(current.getLeft()) + 1;
+                current = current.getRight();
+            } else {
+                current = current.getLeft();
+            }
+        }
+        return count;
+    }
+
+    private int sizeOf(Node node) {
+        return node == null ? 0 : node.getSize();
     }
 
     public int height() {
-        return findHeight(root) - 1;
+        return height(root) - 1;
+    }
+
+    /**
+     * Takes the statistics of the shape of the tree in O(log n), the cost of counting the black height
+     */
+    public TreeStats stats() {
+        return new TreeStats(size, height(), pathLengthOf(root), blackHeight(root));
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.getHeight();
     }
 
-    private int findHeight(Node node) {
-        if (node == null) {
-            return 0;
+    private long pathLengthOf(Node node) {
+        return node == null ? 0 : node.getPathLength();
+    }
+
+    /**
+     * Recomputes the cached subtree size, height and path length of the node from its children
+     */
+    private void update(Node node) {
+        Node left = node.getLeft();
+        Node right = node.getRight();
+        node.setSize(1 + sizeOf(left) + sizeOf(right));
+        node.setHeight(1 + Math.max(height(left), height(right)));
+        // every node of the subtrees is one level deeper below this node than below its child
+        node.setPathLength(pathLengthOf(left) + sizeOf(left) + pathLengthOf(right) + sizeOf(right));
+    }
+
+    /**
+     * Passes a rotation under the node on to its ancestors. The path length of each of them changes by
+     * as much as the one of the rotated subtree, and their heights are recomputed up to the first one
+     * that stays the same
+     */
+    private void adjustAbove(Node node, long pathLengthChange) {
+        boolean heightChanged = true;
+        for (Node ancestor = getParent(node); ancestor != null; ancestor = getParent(ancestor)) {
+            ancestor.setPathLength(ancestor.getPathLength() + pathLengthChange);
+            if (heightChanged) {
+                int height = 1 + Math.max(height(ancestor.getLeft()), height(ancestor.getRight()));
+                heightChanged = height != ancestor.getHeight();
+                ancestor.setHeight(height);
+            }
         }
-        return 1 + Math.max(findHeight(node.getLeft()), findHeight(node.getRight()));
+    }
+
+    /**
+     * Returns a lazy in-order iterator. The result is undefined if the tree is modified during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED}, {@code DISTINCT}, {@code SIZED} and
+     * {@code SUBSIZED}. It splits at subtree boundaries into halves of about the same size
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a sequential stream of the elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements, split at subtree boundaries into halves of about the
+     * same size
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the elements in the range, positioned with one descent
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
     }
 
     public List<E> getLine(int line) {
@@ -385,7 +1225,7 @@ public class RBTree<E extends Comparable<E>> {
             }
             getLine(l, currentLine + 1, current.getRight(), list);
         } else if (currentLine == l) {
-            list.add((E) current.getData());
+            list.add(current.getData());
         }
         return list;
     }
@@ -415,16 +1255,173 @@ public class RBTree<E extends Comparable<E>> {
     }
 
 
-    public class Node<E extends Comparable<E>> {
+    /**
+     * Rebalancing of the tree, which counts the rotations and recolors for the metrics and updates the
+     * sizes, heights and path lengths of the rotated nodes and their ancestors
+     */
+    private class Balancer extends RBBalancer<Node> {
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        Node parent(Node node) {
+            return node.getParent();
+        }
+
+        @Override
+        void setLeft(Node node, Node child) {
+            node.setLeft(child);
+        }
+
+        @Override
+        void setRight(Node node, Node child) {
+            node.setRight(child);
+        }
+
+        @Override
+        void setParent(Node node, Node parent) {
+            node.setParent(parent);
+        }
+
+        @Override
+        RBTreeColor color(Node node) {
+            return node.getColor();
+        }
+
+        @Override
+        void setColor(Node node, RBTreeColor color) {
+            if (TreeMetrics.ENABLED && metrics != null && node.getColor() != color) {
+                metrics.countRecolor();
+            }
+            node.setColor(color);
+        }
+
+        @Override
+        Node root() {
+            return root;
+        }
+
+        @Override
+        void replace(Node node, Node child) {
+            RBTree.this.replace(node, child);
+        }
+
+        @Override
+        void rotated(Node down, Node up) {
+            if (TreeMetrics.ENABLED && metrics != null) {
+                metrics.countRotation();
+            }
+            // the rotated node still holds the path length of the subtree before the rotation
+            long pathLength = down.getPathLength();
+            update(down);
+            update(up);
+            adjustAbove(up, up.getPathLength() - pathLength);
+        }
+    }
+
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node> {
+
+        Traversal() {
+            super(root, size, 2 * (32 - Integer.numberOfLeadingZeros(size + 1)));
+        }
+
+        Traversal(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            super(root, size, 2 * (32 - Integer.numberOfLeadingZeros(size + 1)), from, fromInclusive, to, toInclusive);
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        E data(Node node) {
+            return node.getData();
+        }
+
+        @Override
+        long size(Node node) {
+            return node.getSize();
+        }
+
+        @Override
+        Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    /**
+     * Detached subtree with the number of black nodes on every path from its root to a null leaf
+     */
+    private class Subtree {
+        final Node root;
+        final int blackHeight;
+
+        Subtree(Node root, int blackHeight) {
+            this.root = root;
+            this.blackHeight = blackHeight;
+        }
+    }
+
+    /**
+     * Parts of a subtree split at an element
+     */
+    private class Split {
+        Subtree left;
+        // node equal to the element, null if there is none
+        Node found;
+        Subtree right;
+
+        Split(Subtree left, Node found, Subtree right) {
+            this.left = left;
+            this.found = found;
+            this.right = right;
+        }
+    }
+
+    public class Node {
         E data;
         Node left;
         Node right;
+        Node parent;
         RBTreeColor color;
+        int size;
+        int height;
+        // sum of the depths of the nodes of the subtree below this node
+        long pathLength;
 
         Node(E data) {
             this.data = data;
             left = null;
             right = null;
+            parent = null;
+            size = 1;
+            height = 1;
             this.color = RED;
         }
 
@@ -432,7 +1429,7 @@ public class RBTree<E extends Comparable<E>> {
             this.data = data;
         }
 
-        Node setLeft(Node<E> leftNode) {
+        Node setLeft(Node leftNode) {
             if (left != null) {
                 this.left = leftNode;
                 return null;
@@ -443,7 +1440,7 @@ public class RBTree<E extends Comparable<E>> {
             }
         }
 
-        Node setRight(Node<E> rightNode) {
+        Node setRight(Node rightNode) {
             if (left != null) {
                 this.right = rightNode;
                 return null;
@@ -454,6 +1451,22 @@ public class RBTree<E extends Comparable<E>> {
             }
         }
 
+        void setParent(Node parentNode) {
+            this.parent = parentNode;
+        }
+
+        void setSize(int size) {
+            this.size = size;
+        }
+
+        void setHeight(int height) {
+            this.height = height;
+        }
+
+        void setPathLength(long pathLength) {
+            this.pathLength = pathLength;
+        }
+
         void setColor(RBTreeColor color) {
             this.color = color;
         }
@@ -470,6 +1483,22 @@ public class RBTree<E extends Comparable<E>> {
             return this.right;
         }
 
+        Node getParent() {
+            return this.parent;
+        }
+
+        int getSize() {
+            return this.size;
+        }
+
+        int getHeight() {
+            return this.height;
+        }
+
+        long getPathLength() {
+            return this.pathLength;
+        }
+
         RBTreeColor getColor() {
             return this.color;
         }
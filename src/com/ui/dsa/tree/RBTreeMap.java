@@ -0,0 +1,1016 @@
+package com.ui.dsa.tree;
+
+import com.ui.dsa.tree.enumerations.RBTreeColor;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.ui.dsa.tree.enumerations.RBTreeColor.BLACK;
+import static com.ui.dsa.tree.enumerations.RBTreeColor.RED;
+
+/**
+ * Sorted map on a red black tree
+ * <p>
+ * The balancing is the one of {@link RBTree}. Every single-key operation, including
+ * {@link #computeIfAbsent}, {@link #compute} and {@link #merge}, walks from the root to the key once:
+ * a missing key is attached under the last node of the same walk, and a removed key is unlinked from
+ * the node the walk found. Keys are compared by their natural ordering and may not be null; values
+ * may be null.
+ *
+ * @param <K> - key type
+ * @param <V> - value type
+ */
+public class RBTreeMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+    private Node<K, V> root;
+    private int size;
+    // structural modifications, checked by iterators and by the compute methods
+    private int modCount;
+
+    private EntrySet entrySet;
+    private final Balancer balancer = new Balancer();
+
+    public RBTreeMap() {
+        root = null;
+        size = 0;
+        modCount = 0;
+    }
+
+    /**
+     * Creates a map with the mappings of the given map
+     */
+    public RBTreeMap(Map<? extends K, ? extends V> map) {
+        this();
+        putAll(map);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        root = null;
+        size = 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return getNode(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = getNode(key);
+        return node == null ? null : node.value;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<K, V> node = getNode(key);
+        return node == null ? defaultValue : node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(key, value, true);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return put(key, value, false);
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = getNode(key);
+        if (node == null) {
+            return null;
+        }
+        V old = node.value;
+        deleteNode(node);
+        return old;
+    }
+
+    /**
+     * Returns the value of the key, computing and inserting it first if the key is missing or
+     * mapped to null. Looking the key up and inserting it is one descent
+     */
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (mappingFunction == null) {
+            throw new NullPointerException();
+        }
+        checkKey(key);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            cmp = current.key.compareTo(key);
+            if (cmp == 0) {
+                if (current.value == null) {
+                    V value = callMapping(mappingFunction, key);
+                    if (value != null) {
+                        current.value = value;
+                    }
+                    return value;
+                }
+                return current.value;
+            }
+            parent = current;
+            current = cmp > 0 ? current.left : current.right;
+        }
+        V value = callMapping(mappingFunction, key);
+        if (value != null) {
+            attach(parent, cmp, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Replaces the value of the key with the result of the function if the key is mapped to a
+     * non-null value, and removes the key if the result is null
+     */
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        Node<K, V> node = getNode(key);
+        if (node == null || node.value == null) {
+            return null;
+        }
+        V value = callRemapping(remappingFunction, key, node.value);
+        if (value == null) {
+            deleteNode(node);
+        } else {
+            node.value = value;
+        }
+        return value;
+    }
+
+    /**
+     * Maps the key to the result of the function applied to its current value, or to null if the key
+     * is missing, and removes the key if the result is null. Looking the key up and inserting or
+     * removing it is one descent
+     */
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        checkKey(key);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            cmp = current.key.compareTo(key);
+            if (cmp == 0) {
+                V value = callRemapping(remappingFunction, key, current.value);
+                if (value == null) {
+                    deleteNode(current);
+                } else {
+                    current.value = value;
+                }
+                return value;
+            }
+            parent = current;
+            current = cmp > 0 ? current.left : current.right;
+        }
+        V value = callRemapping(remappingFunction, key, null);
+        if (value != null) {
+            attach(parent, cmp, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Maps a missing key, or a key mapped to null, to the value, and otherwise combines the current
+     * value with the value by the function, removing the key if the result is null. Looking the key up
+     * and inserting or removing it is one descent
+     */
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (value == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+        checkKey(key);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            cmp = current.key.compareTo(key);
+            if (cmp == 0) {
+                if (current.value == null) {
+                    current.value = value;
+                    return value;
+                }
+                V merged = callRemapping(remappingFunction, current.value, value);
+                if (merged == null) {
+                    deleteNode(current);
+                } else {
+                    current.value = merged;
+                }
+                return merged;
+            }
+            parent = current;
+            current = cmp > 0 ? current.left : current.right;
+        }
+        attach(parent, cmp, key, value);
+        return value;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        // natural ordering
+        return null;
+    }
+
+    /**
+     * @throws NoSuchElementException if the map is empty
+     */
+    @Override
+    public K firstKey() {
+        return key(firstNode());
+    }
+
+    /**
+     * @throws NoSuchElementException if the map is empty
+     */
+    @Override
+    public K lastKey() {
+        return key(lastNode());
+    }
+
+    /**
+     * @return a snapshot of the mapping with the least key, or null if the map is empty
+     */
+    public Map.Entry<K, V> firstEntry() {
+        return snapshot(firstNode());
+    }
+
+    /**
+     * @return a snapshot of the mapping with the greatest key, or null if the map is empty
+     */
+    public Map.Entry<K, V> lastEntry() {
+        return snapshot(lastNode());
+    }
+
+    /**
+     * Removes the mapping with the least key
+     *
+     * @return a snapshot of the removed mapping, or null if the map is empty
+     */
+    public Map.Entry<K, V> pollFirstEntry() {
+        return poll(firstNode());
+    }
+
+    /**
+     * Removes the mapping with the greatest key
+     *
+     * @return a snapshot of the removed mapping, or null if the map is empty
+     */
+    public Map.Entry<K, V> pollLastEntry() {
+        return poll(lastNode());
+    }
+
+    /**
+     * Finds the mapping with the least key greater than or equal to the key
+     *
+     * @return a snapshot of the found mapping, or null if there is none
+     */
+    public Map.Entry<K, V> ceilingEntry(K key) {
+        return snapshot(nearest(key, true, true));
+    }
+
+    /**
+     * Finds the mapping with the least key strictly greater than the key
+     *
+     * @return a snapshot of the found mapping, or null if there is none
+     */
+    public Map.Entry<K, V> higherEntry(K key) {
+        return snapshot(nearest(key, true, false));
+    }
+
+    /**
+     * Finds the mapping with the greatest key less than or equal to the key
+     *
+     * @return a snapshot of the found mapping, or null if there is none
+     */
+    public Map.Entry<K, V> floorEntry(K key) {
+        return snapshot(nearest(key, false, true));
+    }
+
+    /**
+     * Finds the mapping with the greatest key strictly less than the key
+     *
+     * @return a snapshot of the found mapping, or null if there is none
+     */
+    public Map.Entry<K, V> lowerEntry(K key) {
+        return snapshot(nearest(key, false, false));
+    }
+
+    public K ceilingKey(K key) {
+        return keyOrNull(nearest(key, true, true));
+    }
+
+    public K higherKey(K key) {
+        return keyOrNull(nearest(key, true, false));
+    }
+
+    public K floorKey(K key) {
+        return keyOrNull(nearest(key, false, true));
+    }
+
+    public K lowerKey(K key) {
+        return keyOrNull(nearest(key, false, false));
+    }
+
+    /**
+     * Returns a live view of the mappings from fromKey, inclusive, to toKey, exclusive
+     */
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    /**
+     * Returns a live view of the mappings with keys between fromKey and toKey
+     */
+    public SortedMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        checkKey(fromKey);
+        checkKey(toKey);
+        return new SubMap(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the mappings with keys less than toKey
+     */
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    /**
+     * Returns a live view of the mappings with keys less than, or equal to if inclusive, toKey
+     */
+    public SortedMap<K, V> headMap(K toKey, boolean inclusive) {
+        checkKey(toKey);
+        return new SubMap(null, false, toKey, inclusive);
+    }
+
+    /**
+     * Returns a live view of the mappings with keys greater than or equal to fromKey
+     */
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    /**
+     * Returns a live view of the mappings with keys greater than, or equal to if inclusive, fromKey
+     */
+    public SortedMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        checkKey(fromKey);
+        return new SubMap(fromKey, inclusive, null, false);
+    }
+
+    /**
+     * Returns a live view of the mappings in ascending key order. Iteration is O(1) amortized per
+     * mapping, and the entries are the nodes of the tree, so their setValue writes through
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    public int height() {
+        return findHeight(root) - 1;
+    }
+
+    private int findHeight(Node<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+        return 1 + Math.max(findHeight(node.left), findHeight(node.right));
+    }
+
+    private V put(K key, V value, boolean replace) {
+        checkKey(key);
+        Node<K, V> parent = null;
+        int cmp = 0;
+        Node<K, V> current = root;
+        while (current != null) {
+            cmp = current.key.compareTo(key);
+            if (cmp == 0) {
+                V old = current.value;
+                if (replace || old == null) {
+                    current.value = value;
+                }
+                return old;
+            }
+            parent = current;
+            current = cmp > 0 ? current.left : current.right;
+        }
+        attach(parent, cmp, key, value);
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Node<K, V> getNode(Object key) {
+        checkKey(key);
+        K k = (K) key;
+        Node<K, V> current = root;
+        while (current != null) {
+            int cmp = current.key.compareTo(k);
+            if (cmp > 0) {
+                current = current.left;
+            } else if (cmp < 0) {
+                current = current.right;
+            } else {
+                return current;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Attaches a new red node under the parent found by a descent and rebalances
+     *
+     * @param parent - last node of the descent, null if the map is empty
+     * @param cmp    - result of comparing the parent's key with the key
+     */
+    private Node<K, V> attach(Node<K, V> parent, int cmp, K key, V value) {
+        Node<K, V> node = new Node<>(key, value, parent);
+        if (parent == null) {
+            root = node;
+        } else if (cmp > 0) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        size++;
+        modCount++;
+        balancer.fixAfterInsert(node);
+        return node;
+    }
+
+    /**
+     * Unlinks the node from the tree and rebalances
+     */
+    private void deleteNode(Node<K, V> current) {
+        modCount++;
+        size--;
+        // if the node has 2 children, move the predecessor mapping into it and remove the predecessor
+        if (current.left != null && current.right != null) {
+            Node<K, V> pred = current.left;
+            while (pred.right != null) {
+                pred = pred.right;
+            }
+            current.key = pred.key;
+            current.value = pred.value;
+            current = pred;
+        }
+        // now the node has at most one child
+        Node<K, V> child = current.left != null ? current.left : current.right;
+        if (child != null) {
+            replace(current, child);
+            // a single child of a black node is always red
+            child.color = BLACK;
+        } else if (current.parent == null) {
+            root = null;
+        } else {
+            // a black leaf leaves its path one black node short: fix it while the leaf is still attached
+            if (current.color == BLACK) {
+                balancer.fixAfterDelete(current);
+            }
+            replace(current, null);
+        }
+    }
+
+    /**
+     * Puts the child in the place of the node under the node's parent
+     */
+    private void replace(Node<K, V> current, Node<K, V> child) {
+        Node<K, V> parent = current.parent;
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == current) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        if (child != null) {
+            child.parent = parent;
+        }
+    }
+
+    private Node<K, V> firstNode() {
+        Node<K, V> current = root;
+        if (current != null) {
+            while (current.left != null) {
+                current = current.left;
+            }
+        }
+        return current;
+    }
+
+    private Node<K, V> lastNode() {
+        Node<K, V> current = root;
+        if (current != null) {
+            while (current.right != null) {
+                current = current.right;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Finds the node nearest to the key in one direction with one descent
+     *
+     * @param above     - true to look for keys greater than the key, false for less
+     * @param inclusive - true if a node with the key itself is a match
+     */
+    private Node<K, V> nearest(K key, boolean above, boolean inclusive) {
+        checkKey(key);
+        Node<K, V> current = root;
+        Node<K, V> best = null;
+        while (current != null) {
+            int cmp = current.key.compareTo(key);
+            if (cmp == 0 && inclusive) {
+                return current;
+            }
+            if (above ? cmp > 0 : cmp < 0) {
+                best = current;
+                current = above ? current.left : current.right;
+            } else {
+                current = above ? current.right : current.left;
+            }
+        }
+        return best;
+    }
+
+    private static <K, V> Node<K, V> successor(Node<K, V> node) {
+        if (node.right != null) {
+            node = node.right;
+            while (node.left != null) {
+                node = node.left;
+            }
+            return node;
+        }
+        Node<K, V> parent = node.parent;
+        while (parent != null && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    private Map.Entry<K, V> poll(Node<K, V> node) {
+        if (node == null) {
+            return null;
+        }
+        Map.Entry<K, V> entry = snapshot(node);
+        deleteNode(node);
+        return entry;
+    }
+
+    private static <K, V> Map.Entry<K, V> snapshot(Node<K, V> node) {
+        return node == null ? null : new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+    }
+
+    private static <K> K key(Node<K, ?> node) {
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+        return node.key;
+    }
+
+    private static <K> K keyOrNull(Node<K, ?> node) {
+        return node == null ? null : node.key;
+    }
+
+    private static void checkKey(Object key) {
+        if (key == null) {
+            throw new NullPointerException("Null keys are not supported");
+        }
+    }
+
+    /**
+     * Calls the function, failing if it modified the map, since that could detach the place found
+     * by the descent
+     */
+    private V callMapping(Function<? super K, ? extends V> function, K key) {
+        int expectedModCount = modCount;
+        V value = function.apply(key);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return value;
+    }
+
+    private <T, U> V callRemapping(BiFunction<T, U, ? extends V> function, T first, U second) {
+        int expectedModCount = modCount;
+        V value = function.apply(first, second);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        return value;
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator(firstNode(), null, false);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            RBTreeMap.this.clear();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Node<K, V> node = entry.getKey() == null ? null : getNode(entry.getKey());
+            return node != null && eq(node.value, entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            Node<K, V> node = entry.getKey() == null ? null : getNode(entry.getKey());
+            if (node != null && eq(node.value, entry.getValue())) {
+                deleteNode(node);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Ascending iterator over the nodes, following parent links from one node to the next
+     */
+    private class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+        private Node<K, V> next;
+        private Node<K, V> lastReturned;
+        // upper bound, null if none
+        private final K to;
+        private final boolean toInclusive;
+        private int expectedModCount;
+
+        EntryIterator(Node<K, V> first, K to, boolean toInclusive) {
+            this.to = to;
+            this.toInclusive = toInclusive;
+            this.next = beyond(first) ? null : first;
+            this.lastReturned = null;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            lastReturned = next;
+            Node<K, V> following = successor(next);
+            next = beyond(following) ? null : following;
+            return lastReturned;
+        }
+
+        /**
+         * Removes the last returned mapping. When the node has two children its predecessor, which was
+         * already returned, is moved into it, so the next node stays in place
+         */
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            deleteNode(lastReturned);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+
+        private boolean beyond(Node<K, V> node) {
+            if (node == null) {
+                return true;
+            }
+            if (to == null) {
+                return false;
+            }
+            int cmp = node.key.compareTo(to);
+            return cmp > 0 || (cmp == 0 && !toInclusive);
+        }
+    }
+
+    /**
+     * Live view of the mappings with keys within a range. Bounds that are null leave the range open
+     * on that side. Its size is counted by iterating the range
+     */
+    private class SubMap extends AbstractMap<K, V> implements SortedMap<K, V> {
+
+        private final K from;
+        private final boolean fromInclusive;
+        private final K to;
+        private final boolean toInclusive;
+
+        SubMap(K from, boolean fromInclusive, K to, boolean toInclusive) {
+            if (from != null && to != null && from.compareTo(to) > 0) {
+                throw new IllegalArgumentException("fromKey " + from + " is greater than toKey " + to);
+            }
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        @Override
+        public Set<Map.Entry<K, V>> entrySet() {
+            return new AbstractSet<Map.Entry<K, V>>() {
+                @Override
+                public Iterator<Map.Entry<K, V>> iterator() {
+                    return new EntryIterator(lowest(), to, toInclusive);
+                }
+
+                @Override
+                public int size() {
+                    int count = 0;
+                    for (Iterator<Map.Entry<K, V>> it = iterator(); it.hasNext(); it.next()) {
+                        count++;
+                    }
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !entrySet().iterator().hasNext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean containsKey(Object key) {
+            return inRange((K) key) && RBTreeMap.this.containsKey(key);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(Object key) {
+            return inRange((K) key) ? RBTreeMap.this.get(key) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!inRange(key)) {
+                throw new IllegalArgumentException(key + " is out of the range of the view");
+            }
+            return RBTreeMap.this.put(key, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V remove(Object key) {
+            return inRange((K) key) ? RBTreeMap.this.remove(key) : null;
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return null;
+        }
+
+        @Override
+        public K firstKey() {
+            Node<K, V> node = lowest();
+            if (node == null || !inRange(node.key)) {
+                throw new NoSuchElementException();
+            }
+            return node.key;
+        }
+
+        @Override
+        public K lastKey() {
+            Node<K, V> node = to == null ? lastNode() : nearest(to, false, toInclusive);
+            if (node == null || !inRange(node.key)) {
+                throw new NoSuchElementException();
+            }
+            return node.key;
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            checkKey(fromKey);
+            checkKey(toKey);
+            checkBound(fromKey, true);
+            checkBound(toKey, false);
+            return new SubMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            checkKey(toKey);
+            checkBound(toKey, false);
+            return new SubMap(from, fromInclusive, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            checkKey(fromKey);
+            checkBound(fromKey, true);
+            return new SubMap(fromKey, true, to, toInclusive);
+        }
+
+        private Node<K, V> lowest() {
+            return from == null ? firstNode() : nearest(from, true, fromInclusive);
+        }
+
+        private boolean inRange(K key) {
+            checkKey(key);
+            if (from != null) {
+                int cmp = key.compareTo(from);
+                if (cmp < 0 || (cmp == 0 && !fromInclusive)) {
+                    return false;
+                }
+            }
+            if (to != null) {
+                int cmp = key.compareTo(to);
+                if (cmp > 0 || (cmp == 0 && !toInclusive)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Checks that a bound of a nested view does not reach past this view. An inclusive bound must be
+         * in the range of this view, an exclusive one may also equal one of its bounds
+         */
+        private void checkBound(K key, boolean inclusive) {
+            if (inclusive ? !inRange(key) : !inClosedRange(key)) {
+                throw new IllegalArgumentException(key + " is out of the range of the view");
+            }
+        }
+
+        /**
+         * @return true if the key is within the range or equal to one of its bounds
+         */
+        private boolean inClosedRange(K key) {
+            return (from == null || key.compareTo(from) >= 0) && (to == null || key.compareTo(to) <= 0);
+        }
+    }
+
+    private class Balancer extends RBBalancer<Node<K, V>> {
+
+        @Override
+        Node<K, V> left(Node<K, V> node) {
+            return node.left;
+        }
+
+        @Override
+        Node<K, V> right(Node<K, V> node) {
+            return node.right;
+        }
+
+        @Override
+        Node<K, V> parent(Node<K, V> node) {
+            return node.parent;
+        }
+
+        @Override
+        void setLeft(Node<K, V> node, Node<K, V> child) {
+            node.left = child;
+        }
+
+        @Override
+        void setRight(Node<K, V> node, Node<K, V> child) {
+            node.right = child;
+        }
+
+        @Override
+        void setParent(Node<K, V> node, Node<K, V> parent) {
+            node.parent = parent;
+        }
+
+        @Override
+        RBTreeColor color(Node<K, V> node) {
+            return node.color;
+        }
+
+        @Override
+        void setColor(Node<K, V> node, RBTreeColor color) {
+            node.color = color;
+        }
+
+        @Override
+        Node<K, V> root() {
+            return root;
+        }
+
+        @Override
+        void replace(Node<K, V> node, Node<K, V> child) {
+            RBTreeMap.this.replace(node, child);
+        }
+    }
+
+    static class Node<K, V> implements Map.Entry<K, V> {
+        K key;
+        V value;
+        Node<K, V> left;
+        Node<K, V> right;
+        Node<K, V> parent;
+        RBTreeColor color;
+
+        Node(K key, V value, Node<K, V> parent) {
+            this.key = key;
+            this.value = value;
+            this.parent = parent;
+            left = null;
+            right = null;
+            this.color = RED;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return eq(key, entry.getKey()) && eq(value, entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.ui.dsa.tree;
+
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+
+/**
+ * Live view of the elements of a tree within a range
+ * <p>
+ * The view stores only the bounds: every call goes to the tree, so changes through the view are made
+ * in the tree and changes of the tree are seen by the view. Positioning at either end of the range
+ * costs one O(log n) descent, iteration costs O(1) per element and {@link #size()} costs O(log n).
+ * Removing through the iterator deletes the element from the tree and positions a new traversal of
+ * the tree past it, so {@link #clear()} and {@link #removeIf} cost O(log n) per removed element.
+ *
+ * @param <E> - data type of nodes
+ */
+class RangeView<E extends Comparable<E>> extends AbstractSet<E> implements SortedSet<E> {
+
+    private final NavigableTree<E> tree;
+    // bounds, null if the range is open on that side
+    private final E from;
+    private final boolean fromInclusive;
+    private final E to;
+    private final boolean toInclusive;
+
+    RangeView(NavigableTree<E> tree, E from, boolean fromInclusive, E to, boolean toInclusive) {
+        this.tree = tree;
+        if (from != null && to != null && compare(from, to) > 0) {
+            throw new IllegalArgumentException("from " + from + " is greater than to " + to);
+        }
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new ViewIterator();
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return tree.spliterator(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public int size() {
+        return tree.countInRange(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !iterator().hasNext();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        E data = (E) o;
+        return inRange(data) && tree.contains(data);
+    }
+
+    @Override
+    public boolean add(E data) {
+        if (!inRange(data)) {
+            throw new IllegalArgumentException(data + " is out of the range of the view");
+        }
+        return tree.insert(data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        E data = (E) o;
+        return inRange(data) && tree.delete(data);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return tree.comparator();
+    }
+
+    @Override
+    public E first() {
+        E first;
+        if (from == null) {
+            first = tree.isEmpty() ? null : tree.min();
+        } else {
+            first = fromInclusive ? tree.ceiling(from) : tree.higher(from);
+        }
+        if (first == null || !belowTo(first)) {
+            throw new NoSuchElementException();
+        }
+        return first;
+    }
+
+    @Override
+    public E last() {
+        E last;
+        if (to == null) {
+            last = tree.isEmpty() ? null : tree.max();
+        } else {
+            last = toInclusive ? tree.floor(to) : tree.lower(to);
+        }
+        if (last == null || !aboveFrom(last)) {
+            throw new NoSuchElementException();
+        }
+        return last;
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        checkBound(fromElement, true);
+        checkBound(toElement, false);
+        return new RangeView<>(tree, fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        checkBound(toElement, false);
+        return new RangeView<>(tree, from, fromInclusive, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        checkBound(fromElement, true);
+        return new RangeView<>(tree, fromElement, true, to, toInclusive);
+    }
+
+    /**
+     * Checks a bound of a nested view: an inclusive bound must be in the range, an exclusive one may
+     * also equal a bound of the range, as in {@link java.util.TreeSet}
+     *
+     * @throws NullPointerException     if the bound is null
+     * @throws IllegalArgumentException if the bound would widen the range
+     */
+    private void checkBound(E data, boolean inclusive) {
+        if (data == null) {
+            throw new NullPointerException();
+        }
+        if (inclusive ? !inRange(data) : !inClosedRange(data)) {
+            throw new IllegalArgumentException(data + " is out of the range of the view");
+        }
+    }
+
+    private boolean inRange(E data) {
+        return aboveFrom(data) && belowTo(data);
+    }
+
+    /**
+     * @return true if the element is within the range or equal to one of its bounds
+     */
+    private boolean inClosedRange(E data) {
+        return (from == null || compare(from, data) <= 0) && (to == null || compare(to, data) >= 0);
+    }
+
+    private boolean aboveFrom(E data) {
+        if (from == null) {
+            return true;
+        }
+        int cmp = compare(data, from);
+        return cmp > 0 || (cmp == 0 && fromInclusive);
+    }
+
+    private boolean belowTo(E data) {
+        if (to == null) {
+            return true;
+        }
+        int cmp = compare(data, to);
+        return cmp < 0 || (cmp == 0 && toInclusive);
+    }
+
+    /**
+     * Iterator of the view supporting {@link #remove()}. The traversals of the trees do not survive a
+     * delete, so a removal starts a new traversal after the removed element
+     */
+    private class ViewIterator implements Iterator<E> {
+
+        private Iterator<E> traversal = tree.iterator(from, fromInclusive, to, toInclusive);
+        // element returned by the last call of next, null if it was removed or next was not called
+        private E last;
+
+        @Override
+        public boolean hasNext() {
+            return traversal.hasNext();
+        }
+
+        @Override
+        public E next() {
+            last = traversal.next();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            tree.delete(last);
+            traversal = tree.iterator(last, false, to, toInclusive);
+            last = null;
+        }
+    }
+
+    private int compare(E first, E second) {
+        Comparator<? super E> comparator = tree.comparator();
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ui.dsa.tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Preparation of the sorted input of the bulk-load factories and batch operations
+ */
+final class SortedInput {
+
+    private SortedInput() {
+    }
+
+    /**
+     * Collects the elements, dropping consecutive duplicates
+     *
+     * @param data - elements in ascending order
+     * @return distinct elements in ascending order
+     * @throws IllegalArgumentException if the elements are not in ascending order
+     * @throws NullPointerException     if an element is null
+     */
+    static <E extends Comparable<E>> List<E> distinct(Iterator<? extends E> data) {
+        List<E> list = new ArrayList<>();
+        E last = null;
+        while (data.hasNext()) {
+            E next = data.next();
+            if (next == null) {
+                throw new NullPointerException("Null element at position " + list.size());
+            }
+            if (last != null) {
+                int cmp = last.compareTo(next);
+                if (cmp > 0) {
+                    throw new IllegalArgumentException("Input is not sorted: " + next + " follows " + last);
+                }
+                if (cmp == 0) {
+                    continue;
+                }
+            }
+            list.add(next);
+            last = next;
+        }
+        return list;
+    }
+
+    /**
+     * Sorts a batch of elements, in parallel if it is large, and drops duplicates
+     *
+     * @param data       - elements in any order
+     * @param comparator - ordering of the elements, null for their natural ordering
+     * @return distinct elements in ascending order
+     * @throws NullPointerException if an element is null
+     */
+    @SuppressWarnings("unchecked")
+    static <E extends Comparable<E>> List<E> sort(Collection<? extends E> data, Comparator<? super E> comparator) {
+        E[] array = (E[]) data.toArray(new Comparable<?>[0]);
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == null) {
+                throw new NullPointerException("Null element at position " + i);
+            }
+        }
+        // sorts sequentially below the parallel sort granularity
+        Comparator<? super E> ordering = comparator != null ? comparator : Comparator.naturalOrder();
+        Arrays.parallelSort(array, ordering);
+        int count = 0;
+        for (E next : array) {
+            if (count == 0 || ordering.compare(array[count - 1], next) != 0) {
+                array[count++] = next;
+            }
+        }
+        return Arrays.asList(array).subList(0, count);
+    }
+}
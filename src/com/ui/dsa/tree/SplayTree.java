@@ -0,0 +1,574 @@
+package com.ui.dsa.tree;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Splay tree
+ * <p>
+ * Every insert, delete and find moves the node it reaches to the root with top-down splaying, which
+ * also roughly halves the depth of every node on the way. Single operations may take O(n), but any
+ * sequence of them takes O(log n) amortized each, and keys accessed often stay near the root: a
+ * skewed workload finds its hot keys in a few comparisons, where a balanced tree pays the full
+ * O(log n) descent for every one of them. The tree keeps no sizes, colors or parent links.
+ * <p>
+ * Since even lookups restructure the tree, it must not be read from several threads at once.
+ *
+ * @param <E> - data type of nodes
+ */
+public class SplayTree<E extends Comparable<E>> implements Iterable<E>, NavigableTree<E> {
+
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
+    // collects the left and right trees while splaying
+    private final Node header = new Node(null);
+    private Node root;
+    private int size;
+    // comparison of the root with the data of the last splay
+    private int rootComparison;
+
+    public SplayTree() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public SplayTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        this.root = null;
+        this.size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts the data at the root, splitting the splayed tree around it
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        Node node;
+        if (root == null) {
+            node = new Node(data);
+        } else {
+            root = splay(root, data);
+            if (rootComparison == 0) {
+                return false;
+            }
+            node = new Node(data);
+            if (rootComparison > 0) {
+                node.setLeft(root.getLeft());
+                node.setRight(root);
+                root.setLeft(null);
+            } else {
+                node.setRight(root.getRight());
+                node.setLeft(root);
+                root.setRight(null);
+            }
+        }
+        root = node;
+        size++;
+        return true;
+    }
+
+    /**
+     * Deletes the data after splaying it to the root. The greatest element of the left subtree is
+     * splayed up to replace it
+     *
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        if (root == null) {
+            return false;
+        }
+        root = splay(root, data);
+        if (rootComparison != 0) {
+            return false;
+        }
+        if (root.getLeft() == null) {
+            root = root.getRight();
+        } else {
+            Node right = root.getRight();
+            // every element on the left is less than the data, so the splay ends at the greatest one
+            root = splay(root.getLeft(), data);
+            root.setRight(right);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Finds the data and splays it, or the last node on its search path, to the root
+     *
+     * @return the node of the data, or null if it is not in the tree
+     */
+    public Node find(E data) {
+        if (root == null) {
+            return null;
+        }
+        root = splay(root, data);
+        return rootComparison == 0 ? root : null;
+    }
+
+    /**
+     * Top-down splay: descends from the node towards the data, hanging the nodes less than the data
+     * on a left tree and the greater ones on a right tree, rotating at every second step down the same
+     * side. The node the descent stops at becomes the root of the two trees
+     *
+     * @param current - root of the splayed subtree, not null
+     * @return the new root of the subtree, equal to the data if the subtree has it, otherwise the
+     * last node on the search path
+     */
+    private Node splay(Node current, E data) {
+        header.setLeft(null);
+        header.setRight(null);
+        // greatest node of the left tree and least node of the right tree, found under the header
+        Node left = header;
+        Node right = header;
+        int cmp = compare(current.getData(), data);
+        while (cmp != 0) {
+            if (cmp > 0) {
+                Node child = current.getLeft();
+                if (child == null) {
+                    break;
+                }
+                int childCmp = compare(child.getData(), data);
+                if (childCmp > 0) {
+                    // zig-zig: rotate the child up before linking it
+                    current.setLeft(child.getRight());
+                    child.setRight(current);
+                    current = child;
+                    cmp = childCmp;
+                    child = current.getLeft();
+                    if (child == null) {
+                        break;
+                    }
+                    childCmp = compare(child.getData(), data);
+                }
+                right.setLeft(current);
+                right = current;
+                current = child;
+                cmp = childCmp;
+            } else {
+                Node child = current.getRight();
+                if (child == null) {
+                    break;
+                }
+                int childCmp = compare(child.getData(), data);
+                if (childCmp < 0) {
+                    current.setRight(child.getLeft());
+                    child.setLeft(current);
+                    current = child;
+                    cmp = childCmp;
+                    child = current.getRight();
+                    if (child == null) {
+                        break;
+                    }
+                    childCmp = compare(child.getData(), data);
+                }
+                left.setRight(current);
+                left = current;
+                current = child;
+                cmp = childCmp;
+            }
+        }
+        left.setRight(current.getLeft());
+        right.setLeft(current.getRight());
+        current.setLeft(header.getRight());
+        current.setRight(header.getLeft());
+        rootComparison = cmp;
+        return current;
+    }
+
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Finds the minimum value in a tree and splays it to the root
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getLeft() != null) {
+            current = current.getLeft();
+        }
+        root = splay(root, current.getData());
+        return root.getData();
+    }
+
+    /**
+     * Finds the maximum value in a tree and splays it to the root
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getRight() != null) {
+            current = current.getRight();
+        }
+        root = splay(root, current.getData());
+        return root.getData();
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the least element greater than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E ceiling(E data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the least element strictly greater than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E higher(E data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the greatest element less than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E floor(E data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the greatest element strictly less than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E lower(E data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Returns a live view of the elements from fromElement, inclusive, to toElement, exclusive
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements between fromElement and toElement
+     */
+    public SortedSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the elements less than toElement
+     */
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements less than, or equal to if inclusive, toElement
+     */
+    public SortedSet<E> headSet(E toElement, boolean inclusive) {
+        if (toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a live view of the elements greater than or equal to fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns a live view of the elements greater than, or equal to if inclusive, fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Finds the element nearest to the data in one direction. The data is splayed first, which leaves
+     * the answer either at the root or at the nearest end of the subtree on the wanted side, and that
+     * end is splayed up to be a child of the root
+     *
+     * @param above     - true to look for elements greater than the data, false for less
+     * @param inclusive - true if an element equal to the data is a match
+     */
+    private E nearest(E data, boolean above, boolean inclusive) {
+        if (root == null) {
+            return null;
+        }
+        root = splay(root, data);
+        int cmp = rootComparison;
+        if ((cmp == 0 && inclusive) || (above ? cmp > 0 : cmp < 0)) {
+            return root.getData();
+        }
+        // every element of the subtree is past the data, so the splay stops at its nearest end
+        if (above) {
+            if (root.getRight() == null) {
+                return null;
+            }
+            root.setRight(splay(root.getRight(), data));
+            return root.getRight().getData();
+        }
+        if (root.getLeft() == null) {
+            return null;
+        }
+        root.setLeft(splay(root.getLeft(), data));
+        return root.getLeft().getData();
+    }
+
+    /**
+     * Counts the elements between from and to, both inclusive, in O(log n + k) amortized
+     */
+    public int countInRange(E from, E to) {
+        return countInRange(from, true, to, true);
+    }
+
+    /**
+     * Counts the elements in the range by walking them, the tree keeping no subtree sizes
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        if (from == null && to == null) {
+            return size;
+        }
+        int count = 0;
+        for (Iterator<E> iterator = iterator(from, fromInclusive, to, toInclusive); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Measures the height level by level, since the tree may be too deep to recurse down
+     */
+    public int height() {
+        int height = -1;
+        ArrayDeque<Node> level = new ArrayDeque<>();
+        if (root != null) {
+            level.add(root);
+        }
+        while (!level.isEmpty()) {
+            height++;
+            for (int i = level.size(); i > 0; i--) {
+                Node node = level.poll();
+                if (node.getLeft() != null) {
+                    level.add(node.getLeft());
+                }
+                if (node.getRight() != null) {
+                    level.add(node.getRight());
+                }
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Checks that the elements are in order and that the size matches the nodes, without recursion.
+     * Takes O(n) time
+     *
+     * @throws IllegalStateException if an invariant is broken
+     */
+    public void checkInvariants() {
+        int count = 0;
+        E previous = null;
+        for (E data : this) {
+            if (previous != null && compare(previous, data) >= 0) {
+                throw new IllegalStateException("node " + data + " is out of order");
+            }
+            previous = data;
+            count++;
+        }
+        if (count != size) {
+            throw new IllegalStateException("size is " + size + " but the tree has " + count + " nodes");
+        }
+    }
+
+    /**
+     * Returns a lazy in-order iterator, which does not splay. The result is undefined if the tree is
+     * modified, or searched, during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED} and {@code DISTINCT}. It splits at
+     * subtree boundaries, which after splaying may be far from halves
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a sequential stream of the elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements, split at subtree boundaries
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the elements in the range, positioned with one descent
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node> {
+
+        Traversal() {
+            super(root, size, expectedDepth());
+        }
+
+        Traversal(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            super(root, size, expectedDepth(), from, fromInclusive, to, toInclusive);
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        E data(Node node) {
+            return node.getData();
+        }
+
+        @Override
+        Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    /**
+     * @return twice the height of a balanced tree of the same size, which the depth of a splay tree
+     * stays near once it has been searched a few times
+     */
+    private int expectedDepth() {
+        return 2 * (32 - Integer.numberOfLeadingZeros(size));
+    }
+
+    public class Node {
+        E data;
+        Node left;
+        Node right;
+
+        Node(E data) {
+            this.data = data;
+            left = null;
+            right = null;
+        }
+
+        void setLeft(Node left) {
+            this.left = left;
+        }
+
+        void setRight(Node right) {
+            this.right = right;
+        }
+
+        E getData() {
+            return this.data;
+        }
+
+        Node getLeft() {
+            return this.left;
+        }
+
+        Node getRight() {
+            return this.right;
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.ui.dsa.tree;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+import java.util.Spliterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Randomized treap
+ * <p>
+ * A search tree on the elements and a max-heap on random priorities, so its shape is that of a tree
+ * built by inserting the elements in random order, whatever the real order: O(log n) expected depth
+ * with no balance information beyond the priority.
+ * <p>
+ * Finds adapt the tree to skewed access, as suggested by Seidel and Aragon: every successful find
+ * draws a new priority for the node and keeps it if it is higher, rotating the node up past the
+ * ancestors it now outranks. A node found k times has the greatest of k + 1 draws as its priority, so
+ * hot keys drift towards the root and the expected depth of a node falls with its share of the
+ * accesses, while cold keys stay in O(log n). Since finds restructure the tree, it must not be read
+ * from several threads at once.
+ *
+ * @param <E> - data type of nodes
+ */
+public class Treap<E extends Comparable<E>> implements Iterable<E>, NavigableTree<E> {
+
+    // ordering of the elements, null for their natural ordering
+    private final Comparator<? super E> comparator;
+    private Node root;
+    private int size;
+    // state of the xorshift generator of the priorities
+    private long seed;
+    // ancestors of the last found node, from the root down
+    @SuppressWarnings("unchecked")
+    private Node[] path = (Node[]) new Treap<?>.Node[32];
+
+    public Treap() {
+        this(null);
+    }
+
+    /**
+     * @param comparator - ordering of the elements, null for their natural ordering
+     */
+    public Treap(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+        this.root = null;
+        this.size = 0;
+        this.seed = ThreadLocalRandom.current().nextLong() | 1;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Inserts the data as a leaf with a random priority and rotates it up while it outranks its parent
+     *
+     * @return true if the element was not in the tree before
+     */
+    public boolean insert(E data) {
+        int oldSize = size;
+        root = insert(root, data);
+        return size != oldSize;
+    }
+
+    /**
+     * Deletes the data by merging its subtrees in place of its node
+     *
+     * @return true if the element was in the tree
+     */
+    public boolean delete(E data) {
+        int oldSize = size;
+        root = delete(root, data);
+        return size != oldSize;
+    }
+
+    /**
+     * Finds the data with one descent, then draws a new priority for its node and rotates the node up
+     * if the new priority is higher
+     *
+     * @return the node of the data, or null if it is not in the tree
+     */
+    public Node find(E data) {
+        Node current = root;
+        int depth = 0;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0) {
+                promote(current, depth);
+                return current;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, 2 * depth);
+            }
+            path[depth++] = current;
+            current = cmp > 0 ? current.getLeft() : current.getRight();
+        }
+        return null;
+    }
+
+    /**
+     * Raises the priority of a found node to a new draw if that is higher, then rotates the node up
+     * along the recorded path until its parent outranks it
+     *
+     * @param depth - number of ancestors of the node in {@link #path}
+     */
+    private void promote(Node node, int depth) {
+        int priority = nextPriority();
+        if (priority <= node.getPriority()) {
+            return;
+        }
+        node.setPriority(priority);
+        for (int i = depth - 1; i >= 0 && priority > path[i].getPriority(); i--) {
+            Node parent = path[i];
+            Node top = parent.getLeft() == node ? rotateRight(parent) : rotateLeft(parent);
+            if (i == 0) {
+                root = top;
+            } else if (path[i - 1].getLeft() == parent) {
+                path[i - 1].setLeft(top);
+            } else {
+                path[i - 1].setRight(top);
+            }
+        }
+    }
+
+    /**
+     * Inserts the data into the subtree, rotating the new node up on the way back
+     *
+     * @return the new root of the subtree
+     */
+    private Node insert(Node current, E data) {
+        if (current == null) {
+            size++;
+            return new Node(data, nextPriority());
+        }
+        int cmp = compare(current.getData(), data);
+        if (cmp > 0) {
+            current.setLeft(insert(current.getLeft(), data));
+            if (current.getLeft().getPriority() > current.getPriority()) {
+                current = rotateRight(current);
+            }
+        } else if (cmp < 0) {
+            current.setRight(insert(current.getRight(), data));
+            if (current.getRight().getPriority() > current.getPriority()) {
+                current = rotateLeft(current);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Deletes the data from the subtree
+     *
+     * @return the new root of the subtree
+     */
+    private Node delete(Node current, E data) {
+        if (current == null) {
+            return null;
+        }
+        int cmp = compare(current.getData(), data);
+        if (cmp > 0) {
+            current.setLeft(delete(current.getLeft(), data));
+        } else if (cmp < 0) {
+            current.setRight(delete(current.getRight(), data));
+        } else {
+            size--;
+            return merge(current.getLeft(), current.getRight());
+        }
+        return current;
+    }
+
+    /**
+     * Merges two treaps, every element of the left one being less than every element of the right
+     * one, along the right spine of the left treap and the left spine of the right one
+     *
+     * @return the root of the merged treap
+     */
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.getPriority() > right.getPriority()) {
+            left.setRight(merge(left.getRight(), right));
+            return left;
+        }
+        right.setLeft(merge(left, right.getLeft()));
+        return right;
+    }
+
+    /**
+     * Rotates the subtree to the left
+     *
+     * @return the new root of the subtree
+     */
+    private Node rotateLeft(Node current) {
+        Node y = current.getRight();
+        current.setRight(y.getLeft());
+        y.setLeft(current);
+        return y;
+    }
+
+    /**
+     * Rotates the subtree to the right
+     *
+     * @return the new root of the subtree
+     */
+    private Node rotateRight(Node current) {
+        Node y = current.getLeft();
+        current.setLeft(y.getRight());
+        y.setRight(current);
+        return y;
+    }
+
+    /**
+     * Draws a priority with one xorshift step, cheaper than a shared random source on every insert
+     * and find
+     */
+    private int nextPriority() {
+        long x = seed;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        seed = x;
+        return (int) (x >>> 32);
+    }
+
+    /**
+     * @return the ordering of the elements, null for their natural ordering
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Compares two elements with exactly one call of the comparator, or of compareTo for the natural
+     * ordering
+     */
+    private int compare(E first, E second) {
+        return comparator == null ? first.compareTo(second) : comparator.compare(first, second);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Finds the minimum value in a tree
+     *
+     * @return - the minimum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E min() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getLeft() != null) {
+            current = current.getLeft();
+        }
+        return current.getData();
+    }
+
+    /**
+     * Finds the maximum value in a tree
+     *
+     * @return - the maximum found value
+     * @throws NoSuchElementException if the tree is empty
+     */
+    public E max() {
+        if (root == null) {
+            throw new NoSuchElementException();
+        }
+        Node current = root;
+        while (current.getRight() != null) {
+            current = current.getRight();
+        }
+        return current.getData();
+    }
+
+    public boolean contains(E data) {
+        return find(data) != null;
+    }
+
+    /**
+     * Finds the least element greater than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E ceiling(E data) {
+        return nearest(data, true, true);
+    }
+
+    /**
+     * Finds the least element strictly greater than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E higher(E data) {
+        return nearest(data, true, false);
+    }
+
+    /**
+     * Finds the greatest element less than or equal to the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E floor(E data) {
+        return nearest(data, false, true);
+    }
+
+    /**
+     * Finds the greatest element strictly less than the data
+     *
+     * @return the found element, or null if there is none
+     */
+    public E lower(E data) {
+        return nearest(data, false, false);
+    }
+
+    /**
+     * Returns a live view of the elements from fromElement, inclusive, to toElement, exclusive
+     */
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements between fromElement and toElement
+     */
+    public SortedSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        if (fromElement == null || toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, fromInclusive, toElement, toInclusive);
+    }
+
+    /**
+     * Returns a live view of the elements less than toElement
+     */
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    /**
+     * Returns a live view of the elements less than, or equal to if inclusive, toElement
+     */
+    public SortedSet<E> headSet(E toElement, boolean inclusive) {
+        if (toElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, null, false, toElement, inclusive);
+    }
+
+    /**
+     * Returns a live view of the elements greater than or equal to fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns a live view of the elements greater than, or equal to if inclusive, fromElement
+     */
+    public SortedSet<E> tailSet(E fromElement, boolean inclusive) {
+        if (fromElement == null) {
+            throw new NullPointerException();
+        }
+        return new RangeView<>(this, fromElement, inclusive, null, false);
+    }
+
+    /**
+     * Finds the element nearest to the data in one direction with one descent
+     *
+     * @param above     - true to look for elements greater than the data, false for less
+     * @param inclusive - true if an element equal to the data is a match
+     */
+    private E nearest(E data, boolean above, boolean inclusive) {
+        Node current = root;
+        Node best = null;
+        while (current != null) {
+            int cmp = compare(current.getData(), data);
+            if (cmp == 0 && inclusive) {
+                return current.getData();
+            }
+            if (above ? cmp > 0 : cmp < 0) {
+                best = current;
+                current = above ? current.getLeft() : current.getRight();
+            } else {
+                current = above ? current.getRight() : current.getLeft();
+            }
+        }
+        return best == null ? null : best.getData();
+    }
+
+    /**
+     * Counts the elements between from and to, both inclusive, in O(log n + k) expected
+     */
+    public int countInRange(E from, E to) {
+        return countInRange(from, true, to, true);
+    }
+
+    /**
+     * Counts the elements in the range by walking them, the tree keeping no subtree sizes
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public int countInRange(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        if (from == null && to == null) {
+            return size;
+        }
+        int count = 0;
+        for (Iterator<E> iterator = iterator(from, fromInclusive, to, toInclusive); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    public int height() {
+        return height(root) - 1;
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : 1 + Math.max(height(node.getLeft()), height(node.getRight()));
+    }
+
+    /**
+     * Checks that the elements are in order, that no node outranks its parent and that the size
+     * matches the nodes. Takes O(n) time
+     *
+     * @throws IllegalStateException if an invariant is broken
+     */
+    public void checkInvariants() {
+        int count = checkInvariants(root, null, null);
+        if (count != size) {
+            throw new IllegalStateException("size is " + size + " but the tree has " + count + " nodes");
+        }
+    }
+
+    private int checkInvariants(Node current, E low, E high) {
+        if (current == null) return 0;
+        E data = current.getData();
+        if ((low != null && compare(low, data) >= 0) || (high != null && compare(high, data) <= 0)) {
+            throw new IllegalStateException("node " + data + " is out of order");
+        }
+        checkPriority(current.getLeft(), current);
+        checkPriority(current.getRight(), current);
+        return 1 + checkInvariants(current.getLeft(), low, data) + checkInvariants(current.getRight(), data, high);
+    }
+
+    private void checkPriority(Node child, Node parent) {
+        if (child != null && child.getPriority() > parent.getPriority()) {
+            throw new IllegalStateException("node " + child.getData() + " outranks its parent " + parent.getData());
+        }
+    }
+
+    /**
+     * Returns a lazy in-order iterator. The result is undefined if the tree is modified, or searched,
+     * during iteration
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a lazy in-order spliterator reporting {@code SORTED} and {@code DISTINCT}. It splits at
+     * subtree boundaries, which are halves on average
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        return new Traversal();
+    }
+
+    /**
+     * Returns a sequential stream of the elements in ascending order
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream of the elements, split at subtree boundaries
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Returns a lazy in-order iterator over the elements in the range, positioned with one descent
+     *
+     * @param from          - lower bound, null if none
+     * @param fromInclusive - true if the lower bound is part of the range
+     * @param to            - upper bound, null if none
+     * @param toInclusive   - true if the upper bound is part of the range
+     */
+    @Override
+    public Iterator<E> iterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Spliterator<E> spliterator(E from, boolean fromInclusive, E to, boolean toInclusive) {
+        return new Traversal(from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Lazy in-order traversal, see {@link InOrderSpliterator}
+     */
+    private class Traversal extends InOrderSpliterator<E, Node> {
+
+        Traversal() {
+            super(root, size, expectedDepth());
+        }
+
+        Traversal(E from, boolean fromInclusive, E to, boolean toInclusive) {
+            super(root, size, expectedDepth(), from, fromInclusive, to, toInclusive);
+        }
+
+        Traversal(Object[] nodes, boolean[] subtree, int count, long estimate, Traversal parent) {
+            super(nodes, subtree, count, estimate, parent);
+        }
+
+        @Override
+        Node left(Node node) {
+            return node.getLeft();
+        }
+
+        @Override
+        Node right(Node node) {
+            return node.getRight();
+        }
+
+        @Override
+        E data(Node node) {
+            return node.getData();
+        }
+
+        @Override
+        Comparator<? super E> comparator() {
+            return comparator;
+        }
+
+        @Override
+        InOrderSpliterator<E, Node> create(Object[] nodes, boolean[] subtree, int count, long estimate) {
+            return new Traversal(nodes, subtree, count, estimate, this);
+        }
+    }
+
+    /**
+     * @return a depth the treap rarely exceeds, a few times the height of a balanced tree of its size
+     */
+    private int expectedDepth() {
+        return 3 * (32 - Integer.numberOfLeadingZeros(size));
+    }
+
+    public class Node {
+        E data;
+        Node left;
+        Node right;
+        // heap order: no child has a higher priority than its parent
+        int priority;
+
+        Node(E data, int priority) {
+            this.data = data;
+            this.priority = priority;
+            left = null;
+            right = null;
+        }
+
+        void setLeft(Node left) {
+            this.left = left;
+        }
+
+        void setRight(Node right) {
+            this.right = right;
+        }
+
+        void setPriority(int priority) {
+            this.priority = priority;
+        }
+
+        E getData() {
+            return this.data;
+        }
+
+        Node getLeft() {
+            return this.left;
+        }
+
+        Node getRight() {
+            return this.right;
+        }
+
+        int getPriority() {
+            return this.priority;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ui.dsa.tree;
+
+import java.util.Locale;
+
+/**
+ * Shape of a tree at one moment. The trees keep the underlying values up to date as they change, so
+ * taking the statistics costs O(1), or O(log n) with the black height of a red black tree, and can be
+ * polled on trees of any size
+ */
+public final class TreeStats {
+
+    private final int size;
+    private final int height;
+    private final long pathLength;
+    private final int blackHeight;
+
+    TreeStats(int size, int height, long pathLength, int blackHeight) {
+        this.size = size;
+        this.height = height;
+        this.pathLength = pathLength;
+        this.blackHeight = blackHeight;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return edges on the longest path from the root down to a leaf, -1 for an empty tree
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the sum of the depths of all nodes, the root being at depth 0
+     */
+    public long getPathLength() {
+        return pathLength;
+    }
+
+    /**
+     * @return the mean depth of the nodes, which is the mean number of edges a successful find goes
+     * down, 0 for an empty tree
+     */
+    public double getAverageDepth() {
+        return size == 0 ? 0 : (double) pathLength / size;
+    }
+
+    /**
+     * @return black nodes on every path from the root down to a null leaf, -1 for a tree without colors
+     */
+    public int getBlackHeight() {
+        return blackHeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "size=%d, height=%d, averageDepth=%.2f, blackHeight=%d",
+                size, height, getAverageDepth(), blackHeight);
+    }
+}
@@ -0,0 +1,120 @@
+package com.ui.dsa.tree.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of latencies in nanoseconds with buckets of a fixed relative width, as in HdrHistogram
+ * <p>
+ * Values below {@value #SUB_BUCKETS} have a bucket each. Above that every power of two is divided into
+ * {@value #SUB_BUCKETS} buckets of equal width, so a recorded value is off by less than 1 / 32 of it
+ * and the whole range of longs fits into a few thousand counters. Recording is a few shifts and one
+ * array increment with no allocation.
+ * <p>
+ * The histogram has one writer. Reads from other threads see each counter as it was at some moment
+ * and may miss the values being recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // every power of two from 2^SUB_BUCKET_BITS to 2^62 plus the exact values below
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Records a latency, negative values being recorded as 0
+     *
+     * @param nanos - the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return the mean of the recorded values, 0 if there is none
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Finds the value below which the given percentage of the recorded values lie
+     *
+     * @param percentile - the percentage, from 0 to 100
+     * @return the highest value of the bucket of that rank, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        long total = count;
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highest(i), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    /**
+     * @return the bucket of a non-negative value
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        // the SUB_BUCKET_BITS bits below the highest one pick the bucket within the power of two
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * @return the lowest value of the bucket
+     */
+    private static long lowest(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int powerOfTwo = index >>> SUB_BUCKET_BITS;
+        return (long) (SUB_BUCKETS + (index & (SUB_BUCKETS - 1))) << (powerOfTwo - 1);
+    }
+
+    /**
+     * @return the highest value of the bucket
+     */
+    private static long highest(int index) {
+        return index == BUCKETS - 1 ? Long.MAX_VALUE : lowest(index + 1) - 1;
+    }
+}
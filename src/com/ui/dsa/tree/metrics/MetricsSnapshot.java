@@ -0,0 +1,146 @@
+package com.ui.dsa.tree.metrics;
+
+import java.util.Locale;
+
+/**
+ * Immutable copy of the metrics of a tree at one moment. Through JMX it is exported as composite data
+ * with one item per getter
+ */
+public final class MetricsSnapshot {
+
+    private final long comparisons;
+    private final long rotations;
+    private final long recolors;
+    private final Latency insertLatency;
+    private final Latency deleteLatency;
+    private final Latency findLatency;
+
+    MetricsSnapshot(long comparisons, long rotations, long recolors,
+                    Latency insertLatency, Latency deleteLatency, Latency findLatency) {
+        this.comparisons = comparisons;
+        this.rotations = rotations;
+        this.recolors = recolors;
+        this.insertLatency = insertLatency;
+        this.deleteLatency = deleteLatency;
+        this.findLatency = findLatency;
+    }
+
+    public long getInserts() {
+        return insertLatency.getCount();
+    }
+
+    public long getDeletes() {
+        return deleteLatency.getCount();
+    }
+
+    public long getFinds() {
+        return findLatency.getCount();
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getRotations() {
+        return rotations;
+    }
+
+    public long getRecolors() {
+        return recolors;
+    }
+
+    /**
+     * @return comparisons per insert, delete and find, which grows with the depth of the descents, 0
+     * before the first operation
+     */
+    public double getComparisonsPerOperation() {
+        long operations = getInserts() + getDeletes() + getFinds();
+        return operations == 0 ? 0 : (double) comparisons / operations;
+    }
+
+    /**
+     * @return rotations per insert and delete, 0 before the first update
+     */
+    public double getRotationsPerUpdate() {
+        long updates = getInserts() + getDeletes();
+        return updates == 0 ? 0 : (double) rotations / updates;
+    }
+
+    public Latency getInsertLatency() {
+        return insertLatency;
+    }
+
+    public Latency getDeleteLatency() {
+        return deleteLatency;
+    }
+
+    public Latency getFindLatency() {
+        return findLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "comparisons=%d (%.2f/op), rotations=%d (%.2f/update), recolors=%d, "
+                        + "insert[%s], delete[%s], find[%s]",
+                comparisons, getComparisonsPerOperation(), rotations, getRotationsPerUpdate(), recolors,
+                insertLatency, deleteLatency, findLatency);
+    }
+
+    /**
+     * Summary of the latencies of one operation, in nanoseconds
+     */
+    public static final class Latency {
+
+        private final long count;
+        private final double mean;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+        private final long max;
+
+        Latency(LatencyHistogram histogram) {
+            count = histogram.count();
+            mean = histogram.mean();
+            p50 = histogram.percentile(50);
+            p90 = histogram.percentile(90);
+            p99 = histogram.percentile(99);
+            p999 = histogram.percentile(99.9);
+            max = histogram.max();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getP999() {
+            return p999;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "count=%d, mean=%.1f, p50=%d, p90=%d, p99=%d, p99.9=%d, max=%d",
+                    count, mean, p50, p90, p99, p999, max);
+        }
+    }
+}
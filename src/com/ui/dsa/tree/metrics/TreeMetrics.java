@@ -0,0 +1,171 @@
+package com.ui.dsa.tree.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Operation counts, structural events and latencies of one tree
+ * <p>
+ * Metrics are off unless the JVM is started with {@code -Dcom.ui.dsa.tree.metrics=true}. Every hook
+ * in the trees is guarded by {@link #ENABLED}, a constant the JIT folds, so without the property the
+ * hooks are compiled away and the trees run exactly as before. With the property a tree still records
+ * nothing until {@code enableMetrics()} is called on it, at the cost of a null check per hook.
+ * <p>
+ * Comparisons, rotations and recolors are counted with {@link LongAdder}s, since the set operations
+ * of a tree compare and rotate from several threads. Latencies are recorded by the thread running the
+ * insert, delete or find, the trees not being thread-safe anyway. A snapshot or a JMX read taken
+ * while the tree is in use may miss the operations in flight.
+ */
+public class TreeMetrics implements TreeMetricsMXBean {
+
+    /**
+     * System property that turns the metrics on
+     */
+    public static final String PROPERTY = "com.ui.dsa.tree.metrics";
+
+    /**
+     * Whether the trees carry any metrics code at all
+     */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder recolors = new LongAdder();
+    private final LatencyHistogram insertLatency = new LatencyHistogram();
+    private final LatencyHistogram deleteLatency = new LatencyHistogram();
+    private final LatencyHistogram findLatency = new LatencyHistogram();
+    private ObjectName name;
+
+    /**
+     * @throws IllegalStateException if the JVM was started without the {@value #PROPERTY} property
+     */
+    public TreeMetrics() {
+        if (!ENABLED) {
+            throw new IllegalStateException("Metrics are disabled, start the JVM with -D" + PROPERTY + "=true");
+        }
+    }
+
+    public void countComparison() {
+        comparisons.increment();
+    }
+
+    public void countRotation() {
+        rotations.increment();
+    }
+
+    public void countRecolor() {
+        recolors.increment();
+    }
+
+    public void recordInsert(long nanos) {
+        insertLatency.record(nanos);
+    }
+
+    public void recordDelete(long nanos) {
+        deleteLatency.record(nanos);
+    }
+
+    public void recordFind(long nanos) {
+        findLatency.record(nanos);
+    }
+
+    @Override
+    public long getInserts() {
+        return insertLatency.count();
+    }
+
+    @Override
+    public long getDeletes() {
+        return deleteLatency.count();
+    }
+
+    @Override
+    public long getFinds() {
+        return findLatency.count();
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    @Override
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    @Override
+    public long getRecolors() {
+        return recolors.sum();
+    }
+
+    @Override
+    public double getComparisonsPerOperation() {
+        return getSnapshot().getComparisonsPerOperation();
+    }
+
+    @Override
+    public MetricsSnapshot getSnapshot() {
+        return new MetricsSnapshot(comparisons.sum(), rotations.sum(), recolors.sum(),
+                new MetricsSnapshot.Latency(insertLatency),
+                new MetricsSnapshot.Latency(deleteLatency),
+                new MetricsSnapshot.Latency(findLatency));
+    }
+
+    @Override
+    public void reset() {
+        comparisons.reset();
+        rotations.reset();
+        recolors.reset();
+        insertLatency.reset();
+        deleteLatency.reset();
+        findLatency.reset();
+    }
+
+    /**
+     * Registers the metrics on the platform MBean server as
+     * {@code com.ui.dsa.tree:type=TreeMetrics,name=<name>}
+     *
+     * @param name - name of the tree, unique among the registered ones
+     * @return the object name of the metrics
+     * @throws IllegalArgumentException if the name is not valid in an object name
+     * @throws IllegalStateException    if the metrics or the name are already registered
+     */
+    public synchronized ObjectName register(String name) {
+        if (this.name != null) {
+            throw new IllegalStateException("Metrics are already registered as " + this.name);
+        }
+        try {
+            ObjectName objectName = new ObjectName("com.ui.dsa.tree:type=TreeMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.name = objectName;
+            return objectName;
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid name: " + name, e);
+        } catch (InstanceAlreadyExistsException | MBeanRegistrationException | NotCompliantMBeanException e) {
+            throw new IllegalStateException("Cannot register metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if they are registered
+     */
+    public synchronized void unregister() {
+        if (name == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+            throw new IllegalStateException("Cannot unregister metrics " + name, e);
+        } finally {
+            name = null;
+        }
+    }
+}
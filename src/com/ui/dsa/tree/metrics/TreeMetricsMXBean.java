@@ -0,0 +1,32 @@
+package com.ui.dsa.tree.metrics;
+
+/**
+ * Management interface of {@link TreeMetrics}. The counters are plain attributes to alert on, the
+ * latencies are in the composite {@code Snapshot} attribute
+ */
+public interface TreeMetricsMXBean {
+
+    long getInserts();
+
+    long getDeletes();
+
+    long getFinds();
+
+    long getComparisons();
+
+    long getRotations();
+
+    long getRecolors();
+
+    /**
+     * @return comparisons per insert, delete and find
+     */
+    double getComparisonsPerOperation();
+
+    MetricsSnapshot getSnapshot();
+
+    /**
+     * Zeroes all counters and histograms
+     */
+    void reset();
+}